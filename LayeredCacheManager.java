@@ -0,0 +1,303 @@
+package com.atlas.aggregate.cms.configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+
+/**
+ * Puts a size-bounded Caffeine (W-TinyLFU) tier in front of a remote {@link CacheManager}, normally the
+ * Redis one. Writes and evictions go to the remote tier first and are then broadcast on a Redis channel
+ * so every other node drops its local copy. Register this manager on the application's
+ * RedisMessageListenerContainer with {@link #getTopic()} to receive those broadcasts.
+ * <p>
+ * Pub/sub delivery is best effort, so local entries also expire after a TTL that is capped at the Redis
+ * cache's own TTL; a missed invalidation is therefore served stale for at most that long. Local entries
+ * are keyed by the key as the remote cache converts it plus the original key's type, so keys that share
+ * one Redis entry (e.g. {@code 1} and {@code "1"}) are invalidated together, both by broadcasts and by
+ * this node's own writes, in time proportional to the number of key types rather than the tier size.
+ */
+public class LayeredCacheManager implements CacheManager, MessageListener {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final String CLEAR_MARKER = "\u0001";
+    private static final int GENERATION_STRIPES = 64;
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ChannelTopic topic;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final Ticker ticker;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, LayeredCache> caches = new ConcurrentHashMap<>();
+
+    public LayeredCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate, String channel, long localMaximumSize,
+                               Duration localTtl) {
+        this(remoteCacheManager, redisTemplate, channel, localMaximumSize, localTtl, Ticker.systemTicker());
+    }
+
+    LayeredCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate, String channel, long localMaximumSize,
+                        Duration localTtl, Ticker ticker) {
+        if (localTtl.isZero() || localTtl.isNegative()) {
+            throw new IllegalArgumentException("Local cache TTL must be positive");
+        }
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.topic = new ChannelTopic(channel);
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.ticker = ticker;
+    }
+
+    public ChannelTopic getTopic() {
+        return topic;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        LayeredCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> new LayeredCache(remoteCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public Map<String, Double> getHitRatios() {
+        return caches.values().stream().collect(Collectors.toMap(LayeredCache::getName, LayeredCache::getHitRatio));
+    }
+
+    public Map<String, Double> getLocalHitRatios() {
+        return caches.values().stream().collect(Collectors.toMap(LayeredCache::getName, LayeredCache::getLocalHitRatio));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(String.valueOf(SEPARATOR), 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        LayeredCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR_MARKER.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    private void publishInvalidation(String cacheName, String wireKey) {
+        redisTemplate.convertAndSend(topic.getTopic(), nodeId + SEPARATOR + cacheName + SEPARATOR + wireKey);
+    }
+
+    private final class LayeredCache implements Cache {
+
+        private final Cache remoteCache;
+        private final ConversionService keyConversionService;
+        private final com.github.benmanes.caffeine.cache.Cache<LocalKey, ValueWrapper> localCache;
+        private final Set<Class<?>> keyTypes = ConcurrentHashMap.newKeySet();
+        private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+        private final LongAdder remoteHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private LayeredCache(Cache remoteCache) {
+            this.remoteCache = remoteCache;
+            Duration ttl = localTtl;
+            if (remoteCache instanceof RedisCache redisCache) {
+                this.keyConversionService = redisCache.getCacheConfiguration().getConversionService();
+                Duration remoteTtl = redisCache.getCacheConfiguration().getTtl();
+                if (!remoteTtl.isZero() && !remoteTtl.isNegative() && remoteTtl.compareTo(ttl) < 0) {
+                    ttl = remoteTtl;
+                }
+            } else {
+                this.keyConversionService = DefaultConversionService.getSharedInstance();
+            }
+            this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        }
+
+        @Override
+        public String getName() {
+            return remoteCache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return remoteCache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            String wireKey = toWireKey(key);
+            ValueWrapper localValue = localCache.getIfPresent(new LocalKey(wireKey, key.getClass()));
+            if (localValue != null) {
+                return localValue;
+            }
+            long generation = generationOf(wireKey);
+            ValueWrapper remoteValue = remoteCache.get(key);
+            if (remoteValue == null) {
+                misses.increment();
+                return null;
+            }
+            remoteHits.increment();
+            putLocalIfCurrent(key, wireKey, generation, remoteValue.get());
+            return remoteValue;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper value = get(key);
+            if (value == null) {
+                return null;
+            }
+            Object result = value.get();
+            if (result != null && type != null && !type.isInstance(result)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + result);
+            }
+            return (T) result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper value = get(key);
+            if (value != null) {
+                return (T) value.get();
+            }
+            String wireKey = toWireKey(key);
+            long generation = generationOf(wireKey);
+            T result = remoteCache.get(key, valueLoader);
+            putLocalIfCurrent(key, wireKey, generation, result);
+            return result;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            String wireKey = toWireKey(key);
+            remoteCache.put(key, value);
+            evictLocal(wireKey);
+            keyTypes.add(key.getClass());
+            localCache.put(new LocalKey(wireKey, key.getClass()), new SimpleValueWrapper(value));
+            publishInvalidation(getName(), wireKey);
+        }
+
+        @Override
+        public void evict(Object key) {
+            String wireKey = toWireKey(key);
+            remoteCache.evict(key);
+            evictLocal(wireKey);
+            publishInvalidation(getName(), wireKey);
+        }
+
+        @Override
+        public void clear() {
+            remoteCache.clear();
+            clearLocal();
+            publishInvalidation(getName(), CLEAR_MARKER);
+        }
+
+        /**
+         * Caches a value read from the remote tier unless an invalidation for its key arrived since the
+         * read started. The generation is checked again after the put, so an invalidation that lands
+         * between the check and the put still removes the entry.
+         */
+        private void putLocalIfCurrent(Object key, String wireKey, long generation, Object value) {
+            if (generationOf(wireKey) != generation) {
+                return;
+            }
+            LocalKey localKey = new LocalKey(wireKey, key.getClass());
+            keyTypes.add(key.getClass());
+            localCache.put(localKey, new SimpleValueWrapper(value));
+            if (generationOf(wireKey) != generation) {
+                localCache.invalidate(localKey);
+            }
+        }
+
+        /**
+         * Drops the local entry of every key type seen for this converted key. Distinct keys that convert
+         * to the same remote key already share one Redis entry, so dropping them together is always safe.
+         */
+        private void evictLocal(String wireKey) {
+            bumpGeneration(wireKey);
+            for (Class<?> keyType : keyTypes) {
+                localCache.invalidate(new LocalKey(wireKey, keyType));
+            }
+        }
+
+        private void clearLocal() {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            localCache.invalidateAll();
+        }
+
+        private String toWireKey(Object key) {
+            if (key instanceof String stringKey) {
+                return stringKey;
+            }
+            if (keyConversionService.canConvert(key.getClass(), String.class)) {
+                return keyConversionService.convert(key, String.class);
+            }
+            return key.toString();
+        }
+
+        private long generationOf(String wireKey) {
+            return generations.get(Math.floorMod(wireKey.hashCode(), GENERATION_STRIPES));
+        }
+
+        private void bumpGeneration(String wireKey) {
+            generations.incrementAndGet(Math.floorMod(wireKey.hashCode(), GENERATION_STRIPES));
+        }
+
+        private double getLocalHitRatio() {
+            return localCache.stats().hitRate();
+        }
+
+        private double getHitRatio() {
+            long localHits = localCache.stats().hitCount();
+            long total = localHits + remoteHits.sum() + misses.sum();
+            return total == 0 ? 1.0 : (double) (localHits + remoteHits.sum()) / total;
+        }
+    }
+
+    private record LocalKey(String wireKey, Class<?> keyType) {
+    }
+}
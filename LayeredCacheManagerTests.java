@@ -0,0 +1,226 @@
+package com.atlas.aggregate.cms.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+public class LayeredCacheManagerTests {
+
+    private AutoCloseable closeable;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+
+    private LayeredCacheManager layeredCacheManager;
+
+    private final AtomicLong tickerNanos = new AtomicLong();
+
+    private Runnable onRemoteRead;
+
+    @BeforeEach
+    public void setup() {
+        closeable = MockitoAnnotations.openMocks(this);
+        onRemoteRead = null;
+        remoteCacheManager = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                // Keys are stored converted to strings, as RedisCache does
+                return new ConcurrentMapCache(name) {
+                    @Override
+                    public ValueWrapper get(Object key) {
+                        ValueWrapper value = super.get(String.valueOf(key));
+                        if (onRemoteRead != null) {
+                            onRemoteRead.run();
+                        }
+                        return value;
+                    }
+
+                    @Override
+                    public <T> T get(Object key, Callable<T> valueLoader) {
+                        return super.get(String.valueOf(key), valueLoader);
+                    }
+
+                    @Override
+                    public void put(Object key, Object value) {
+                        super.put(String.valueOf(key), value);
+                    }
+
+                    @Override
+                    public void evict(Object key) {
+                        super.evict(String.valueOf(key));
+                    }
+                };
+            }
+        };
+        layeredCacheManager = new LayeredCacheManager(remoteCacheManager, redisTemplate, channel, 100, localTtl, tickerNanos::get);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    private final String channel = "TEST_CACHE_INVALIDATION";
+    private final String cacheName = "TEST_PRODUCT_CONFIGS";
+    private final String key = "TEST_PRODUCT_ID";
+    private final Duration localTtl = Duration.ofMinutes(5);
+
+    private DefaultMessage invalidation(String wireKey) {
+        byte[] body = ("OTHER_NODE\u0000" + cacheName + "\u0000" + wireKey).getBytes(StandardCharsets.UTF_8);
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body);
+    }
+
+    @Test
+    public void testGet_ServedFromLocalTierAfterFirstRead() {
+
+        remoteCacheManager.getCache(cacheName).put(key, "TEST_VALUE");
+        Cache cache = layeredCacheManager.getCache(cacheName);
+
+        //ACT
+        cache.get(key);
+        remoteCacheManager.getCache(cacheName).evict(key);
+        Cache.ValueWrapper value = cache.get(key);
+
+        //ASSERT
+        assertNotNull(value);
+        assertEquals("TEST_VALUE", value.get());
+        assertEquals(0.5, layeredCacheManager.getLocalHitRatios().get(cacheName));
+        assertEquals(1.0, layeredCacheManager.getHitRatios().get(cacheName));
+    }
+
+    @Test
+    public void testPut_WritesRemoteAndPublishesInvalidation() {
+
+        Cache cache = layeredCacheManager.getCache(cacheName);
+
+        //ACT
+        cache.put(key, "TEST_VALUE");
+
+        //ASSERT
+        assertEquals("TEST_VALUE", remoteCacheManager.getCache(cacheName).get(key).get());
+        verify(redisTemplate, times(1)).convertAndSend(eq(channel), anyString());
+    }
+
+    @Test
+    public void testOnMessage_InvalidatesLocalTierFromOtherNode() {
+
+        Cache cache = layeredCacheManager.getCache(cacheName);
+        cache.put(key, "TEST_VALUE");
+        remoteCacheManager.getCache(cacheName).evict(key);
+
+        //ACT
+        layeredCacheManager.onMessage(invalidation(key), null);
+
+        //ASSERT
+        assertNull(cache.get(key));
+        assertEquals(0.0, layeredCacheManager.getHitRatios().get(cacheName));
+    }
+
+    @Test
+    public void testGetWithValueLoader_LoadsOnceAcrossTiers() {
+
+        Cache cache = layeredCacheManager.getCache(cacheName);
+
+        //ACT
+        String first = cache.get(key, () -> "TEST_LOADED_VALUE");
+        String second = cache.get(key, () -> "TEST_OTHER_VALUE");
+
+        //ASSERT
+        assertEquals("TEST_LOADED_VALUE", first);
+        assertEquals("TEST_LOADED_VALUE", second);
+        assertEquals("TEST_LOADED_VALUE", remoteCacheManager.getCache(cacheName).get(key).get());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    public void testGet_MissedInvalidationBoundedByTtl() {
+
+        remoteCacheManager.getCache(cacheName).put(key, "TEST_VALUE");
+        Cache cache = layeredCacheManager.getCache(cacheName);
+        cache.get(key);
+        remoteCacheManager.getCache(cacheName).put(key, "TEST_UPDATED_VALUE");
+
+        //ACT
+        Object beforeTtl = cache.get(key).get();
+        tickerNanos.addAndGet(localTtl.plusSeconds(1).toNanos());
+        Object afterTtl = cache.get(key).get();
+
+        //ASSERT
+        assertEquals("TEST_VALUE", beforeTtl);
+        assertEquals("TEST_UPDATED_VALUE", afterTtl);
+    }
+
+    @Test
+    public void testGet_InvalidationDuringRemoteReadNotCachedLocally() {
+
+        remoteCacheManager.getCache(cacheName).put(key, "TEST_VALUE");
+        Cache cache = layeredCacheManager.getCache(cacheName);
+        onRemoteRead = () -> {
+            remoteCacheManager.getCache(cacheName).put(key, "TEST_UPDATED_VALUE");
+            layeredCacheManager.onMessage(invalidation(key), null);
+        };
+
+        //ACT
+        Object raced = cache.get(key).get();
+        onRemoteRead = null;
+        Object next = cache.get(key).get();
+
+        //ASSERT
+        assertEquals("TEST_VALUE", raced);
+        assertEquals("TEST_UPDATED_VALUE", next);
+    }
+
+    @Test
+    public void testPut_EvictsLocalKeysWithSameConvertedKey() {
+
+        Cache cache = layeredCacheManager.getCache(cacheName);
+
+        //ACT
+        cache.put(1, "TEST_INTEGER_KEY_VALUE");
+        cache.put("1", "TEST_STRING_KEY_VALUE");
+
+        //ASSERT
+        assertEquals("TEST_STRING_KEY_VALUE", remoteCacheManager.getCache(cacheName).get(1).get());
+        assertEquals("TEST_STRING_KEY_VALUE", cache.get(1).get());
+        assertEquals("TEST_STRING_KEY_VALUE", cache.get("1").get());
+        assertEquals(0.5, layeredCacheManager.getLocalHitRatios().get(cacheName));
+    }
+
+    @Test
+    public void testOnMessage_InvalidatesByConvertedKey() {
+
+        remoteCacheManager.getCache(cacheName).put(42L, "TEST_VALUE");
+        Cache cache = layeredCacheManager.getCache(cacheName);
+        cache.get(42L);
+        remoteCacheManager.getCache(cacheName).evict(42L);
+
+        //ACT
+        layeredCacheManager.onMessage(invalidation("42"), null);
+
+        //ASSERT
+        assertNull(cache.get(42L));
+    }
+}
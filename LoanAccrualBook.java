@@ -0,0 +1,204 @@
+package com.atlas.aggregate.cms.core.service.loanaccount.schedule;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Holds daily interest accrual state for active loan accounts in parallel primitive arrays. The daily
+ * accrual of a loan is recomputed only when its outstanding principal or rate changed since the last
+ * run; every other loan just adds its cached daily amount. Sub-minor-unit remainders are carried per
+ * loan so accrued interest never drifts from the exact value.
+ */
+public class LoanAccrualBook {
+
+    private static final long DAILY_RATE_DIVISOR = 100L * LoanScheduleEngine.DAYS_IN_YEAR * LoanScheduleEngine.RATE_SCALE;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SPLIT_THRESHOLD = 4096;
+
+    private final Map<String, Integer> slotByAccountId = new HashMap<>();
+    private int size;
+    private int[] freeSlots = new int[0];
+    private int freeCount;
+
+    private long[] outstandingPrincipal = new long[INITIAL_CAPACITY];
+    private long[] rateMicros = new long[INITIAL_CAPACITY];
+    private long[] dailyAccrual = new long[INITIAL_CAPACITY];
+    private long[] dailyRemainder = new long[INITIAL_CAPACITY];
+    private long[] carriedRemainder = new long[INITIAL_CAPACITY];
+    private long[] accruedInterest = new long[INITIAL_CAPACITY];
+    private boolean[] active = new boolean[INITIAL_CAPACITY];
+    private boolean[] dirty = new boolean[INITIAL_CAPACITY];
+
+    public synchronized void register(String loanAccountId, long principal, double annualInterestRate) {
+        if (slotByAccountId.containsKey(loanAccountId)) {
+            throw new IllegalArgumentException("Loan account already registered: " + loanAccountId);
+        }
+        validatePrincipal(principal);
+        long micros = LoanScheduleEngine.toRateMicros(annualInterestRate);
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (size == active.length) {
+                grow();
+            }
+            slot = size++;
+        }
+        slotByAccountId.put(loanAccountId, slot);
+        outstandingPrincipal[slot] = principal;
+        rateMicros[slot] = micros;
+        dailyAccrual[slot] = 0;
+        dailyRemainder[slot] = 0;
+        carriedRemainder[slot] = 0;
+        accruedInterest[slot] = 0;
+        active[slot] = true;
+        dirty[slot] = true;
+    }
+
+    public synchronized void updateOutstandingPrincipal(String loanAccountId, long principal) {
+        validatePrincipal(principal);
+        int slot = slotOf(loanAccountId);
+        if (outstandingPrincipal[slot] != principal) {
+            outstandingPrincipal[slot] = principal;
+            dirty[slot] = true;
+        }
+    }
+
+    public synchronized void updateInterestRate(String loanAccountId, double annualInterestRate) {
+        int slot = slotOf(loanAccountId);
+        long micros = LoanScheduleEngine.toRateMicros(annualInterestRate);
+        if (rateMicros[slot] != micros) {
+            rateMicros[slot] = micros;
+            dirty[slot] = true;
+        }
+    }
+
+    /**
+     * Removes the loan from the book and frees its slot for reuse.
+     *
+     * @return the interest accrued and not yet settled at closure
+     */
+    public synchronized long close(String loanAccountId) {
+        int slot = slotOf(loanAccountId);
+        long unsettled = accruedInterest[slot];
+        slotByAccountId.remove(loanAccountId);
+        active[slot] = false;
+        dirty[slot] = false;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeSlots.length * 2));
+        }
+        freeSlots[freeCount++] = slot;
+        return unsettled;
+    }
+
+    public synchronized int size() {
+        return slotByAccountId.size();
+    }
+
+    public synchronized long getAccruedInterest(String loanAccountId) {
+        return accruedInterest[slotOf(loanAccountId)];
+    }
+
+    /**
+     * Settles accrued interest (e.g. when an installment is posted) and returns the settled amount.
+     */
+    public synchronized long settleAccruedInterest(String loanAccountId) {
+        int slot = slotOf(loanAccountId);
+        long settled = accruedInterest[slot];
+        accruedInterest[slot] = 0;
+        return settled;
+    }
+
+    /**
+     * Runs one day of accrual for every active loan, split across the given pool.
+     *
+     * @return the number of loans whose daily accrual had to be recomputed
+     */
+    public synchronized int runDailyAccrual(ForkJoinPool pool) {
+        AccrualTask task = new AccrualTask(0, size);
+        pool.invoke(task);
+        return task.recomputed;
+    }
+
+    private static void validatePrincipal(long principal) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative");
+        }
+    }
+
+    private int slotOf(String loanAccountId) {
+        Integer slot = slotByAccountId.get(loanAccountId);
+        if (slot == null) {
+            throw new IllegalArgumentException("Loan account not registered: " + loanAccountId);
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = active.length * 2;
+        outstandingPrincipal = Arrays.copyOf(outstandingPrincipal, capacity);
+        rateMicros = Arrays.copyOf(rateMicros, capacity);
+        dailyAccrual = Arrays.copyOf(dailyAccrual, capacity);
+        dailyRemainder = Arrays.copyOf(dailyRemainder, capacity);
+        carriedRemainder = Arrays.copyOf(carriedRemainder, capacity);
+        accruedInterest = Arrays.copyOf(accruedInterest, capacity);
+        active = Arrays.copyOf(active, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+    }
+
+    private int accrue(int from, int to) {
+        int recomputed = 0;
+        for (int slot = from; slot < to; slot++) {
+            if (!active[slot]) {
+                continue;
+            }
+            if (dirty[slot]) {
+                long principal = outstandingPrincipal[slot];
+                long rate = rateMicros[slot];
+                dailyAccrual[slot] = (principal / DAILY_RATE_DIVISOR) * rate + (principal % DAILY_RATE_DIVISOR) * rate / DAILY_RATE_DIVISOR;
+                dailyRemainder[slot] = (principal % DAILY_RATE_DIVISOR) * rate % DAILY_RATE_DIVISOR;
+                dirty[slot] = false;
+                recomputed++;
+            }
+            long carry = carriedRemainder[slot] + dailyRemainder[slot];
+            long accrual = dailyAccrual[slot];
+            if (carry >= DAILY_RATE_DIVISOR) {
+                carry -= DAILY_RATE_DIVISOR;
+                accrual++;
+            }
+            carriedRemainder[slot] = carry;
+            accruedInterest[slot] += accrual;
+        }
+        return recomputed;
+    }
+
+    private final class AccrualTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private int recomputed;
+
+        private AccrualTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                recomputed = accrue(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            AccrualTask left = new AccrualTask(from, mid);
+            AccrualTask right = new AccrualTask(mid, to);
+            invokeAll(left, right);
+            recomputed = left.recomputed + right.recomputed;
+        }
+    }
+}
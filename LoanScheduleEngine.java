@@ -0,0 +1,146 @@
+package com.atlas.aggregate.cms.core.service.loanaccount.schedule;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Generates EMI schedules for loan accounts. Amounts are in minor currency units and the annual
+ * interest rate is held as a fixed-point long (percent * {@link #RATE_SCALE}) so the per-installment
+ * loop runs on primitives only. Every rounding step is HALF_UP to the minor unit and the last
+ * installment settles the remaining principal, so the principal column always sums to the loan amount.
+ */
+public final class LoanScheduleEngine {
+
+    public static final long RATE_SCALE = 1_000_000L;
+    public static final int MONTHS_IN_YEAR = 12;
+    public static final int DAYS_IN_YEAR = 365;
+
+    private static final long MONTHLY_RATE_DIVISOR = 100L * MONTHS_IN_YEAR * RATE_SCALE;
+    private static final MathContext EMI_MATH_CONTEXT = MathContext.DECIMAL128;
+
+    private LoanScheduleEngine() {
+    }
+
+    public static long toRateMicros(double annualInterestRate) {
+        if (annualInterestRate < 0 || Double.isNaN(annualInterestRate) || Double.isInfinite(annualInterestRate)) {
+            throw new IllegalArgumentException("Interest rate must be a non-negative number");
+        }
+        return Math.round(annualInterestRate * RATE_SCALE);
+    }
+
+    public static Schedule generateSchedule(long principal, double annualInterestRate, int tenureMonths) {
+        return generateScheduleForRateMicros(principal, toRateMicros(annualInterestRate), tenureMonths);
+    }
+
+    /**
+     * Same as {@link #generateSchedule} with the rate already in fixed point (see {@link #toRateMicros}).
+     * Named apart so an integer percent argument cannot bind to it.
+     */
+    public static Schedule generateScheduleForRateMicros(long principal, long rateMicros, int tenureMonths) {
+        long emi = computeEmi(principal, rateMicros, tenureMonths);
+        long[] principalComponent = new long[tenureMonths];
+        long[] interestComponent = new long[tenureMonths];
+        long[] closingBalance = new long[tenureMonths];
+
+        long balance = principal;
+        for (int i = 0; i < tenureMonths; i++) {
+            long interest = mulDivHalfUp(balance, rateMicros, MONTHLY_RATE_DIVISOR);
+            long principalPaid = i == tenureMonths - 1 ? balance : Math.min(balance, Math.max(0, emi - interest));
+            balance -= principalPaid;
+            principalComponent[i] = principalPaid;
+            interestComponent[i] = interest;
+            closingBalance[i] = balance;
+        }
+        return new Schedule(emi, principalComponent, interestComponent, closingBalance);
+    }
+
+    /**
+     * EMI = P * i * (1 + i)^n / ((1 + i)^n - 1), evaluated once per loan in decimal arithmetic and
+     * rounded HALF_UP to the minor unit.
+     */
+    public static long computeEmi(long principal, long rateMicros, int tenureMonths) {
+        if (principal <= 0) {
+            throw new IllegalArgumentException("Principal must be positive");
+        }
+        if (tenureMonths <= 0) {
+            throw new IllegalArgumentException("Tenure must be positive");
+        }
+        if (rateMicros < 0) {
+            throw new IllegalArgumentException("Interest rate must be non-negative");
+        }
+        if (rateMicros == 0) {
+            return divideHalfUp(principal, tenureMonths);
+        }
+        BigDecimal monthlyRate = BigDecimal.valueOf(rateMicros).divide(BigDecimal.valueOf(MONTHLY_RATE_DIVISOR), EMI_MATH_CONTEXT);
+        BigDecimal growth = BigDecimal.ONE.add(monthlyRate).pow(tenureMonths, EMI_MATH_CONTEXT);
+        return BigDecimal.valueOf(principal)
+            .multiply(monthlyRate, EMI_MATH_CONTEXT)
+            .multiply(growth, EMI_MATH_CONTEXT)
+            .divide(growth.subtract(BigDecimal.ONE), EMI_MATH_CONTEXT)
+            .setScale(0, RoundingMode.HALF_UP)
+            .longValueExact();
+    }
+
+    /**
+     * Computes a * b / d rounded HALF_UP without overflowing on the intermediate product, as long as
+     * (d - 1) * b fits in a long.
+     */
+    static long mulDivHalfUp(long a, long b, long d) {
+        long remainder = (a % d) * b;
+        long quotient = (a / d) * b + remainder / d;
+        return 2 * (remainder % d) >= d ? quotient + 1 : quotient;
+    }
+
+    static long divideHalfUp(long a, long d) {
+        long quotient = a / d;
+        return 2 * (a % d) >= d ? quotient + 1 : quotient;
+    }
+
+    public static final class Schedule {
+
+        private final long emi;
+        private final long[] principalComponent;
+        private final long[] interestComponent;
+        private final long[] closingBalance;
+
+        private Schedule(long emi, long[] principalComponent, long[] interestComponent, long[] closingBalance) {
+            this.emi = emi;
+            this.principalComponent = principalComponent;
+            this.interestComponent = interestComponent;
+            this.closingBalance = closingBalance;
+        }
+
+        public long getEmi() {
+            return emi;
+        }
+
+        public int getInstallmentCount() {
+            return principalComponent.length;
+        }
+
+        public long getPrincipalComponent(int installment) {
+            return principalComponent[installment];
+        }
+
+        public long getInterestComponent(int installment) {
+            return interestComponent[installment];
+        }
+
+        public long getInstallmentAmount(int installment) {
+            return principalComponent[installment] + interestComponent[installment];
+        }
+
+        public long getClosingBalance(int installment) {
+            return closingBalance[installment];
+        }
+
+        public long getTotalInterest() {
+            long total = 0;
+            for (long interest : interestComponent) {
+                total += interest;
+            }
+            return total;
+        }
+    }
+}
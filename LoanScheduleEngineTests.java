@@ -0,0 +1,157 @@
+package com.atlas.aggregate.cms.core.service.loanaccount.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanScheduleEngineTests {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void setup() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private final String loanAccountId = "TEST_LOAN_ACCOUNT_ID";
+
+    @Test
+    public void testGenerateSchedule_Success() {
+
+        //ACT
+        LoanScheduleEngine.Schedule schedule = LoanScheduleEngine.generateSchedule(10_000_000L, 12.0, 12);
+
+        //ASSERT
+        assertEquals(888_488L, schedule.getEmi());
+        assertEquals(12, schedule.getInstallmentCount());
+        assertEquals(100_000L, schedule.getInterestComponent(0));
+        assertEquals(788_488L, schedule.getPrincipalComponent(0));
+        assertEquals(0L, schedule.getClosingBalance(11));
+
+        long totalPrincipal = 0;
+        for (int i = 0; i < schedule.getInstallmentCount(); i++) {
+            totalPrincipal += schedule.getPrincipalComponent(i);
+        }
+        assertEquals(10_000_000L, totalPrincipal);
+    }
+
+    @Test
+    public void testGenerateSchedule_IntegerRateIsPercent() {
+
+        //ACT
+        LoanScheduleEngine.Schedule schedule = LoanScheduleEngine.generateSchedule(10_000_000L, 12, 12);
+        LoanScheduleEngine.Schedule microsSchedule =
+            LoanScheduleEngine.generateScheduleForRateMicros(10_000_000L, LoanScheduleEngine.toRateMicros(12.0), 12);
+
+        //ASSERT
+        assertEquals(888_488L, schedule.getEmi());
+        assertEquals(888_488L, microsSchedule.getEmi());
+    }
+
+    @Test
+    public void testGenerateSchedule_ZeroInterestRate() {
+
+        //ACT
+        LoanScheduleEngine.Schedule schedule = LoanScheduleEngine.generateSchedule(1_000L, 0.0, 3);
+
+        //ASSERT
+        assertEquals(333L, schedule.getEmi());
+        assertEquals(0L, schedule.getTotalInterest());
+        assertEquals(334L, schedule.getInstallmentAmount(2));
+    }
+
+    @Test
+    public void testGenerateSchedule_InvalidTenure() {
+
+        //ACT
+        IllegalArgumentException exception =
+            assertThrows(IllegalArgumentException.class, () -> LoanScheduleEngine.generateSchedule(10_000_000L, 12.5, 0));
+
+        //ASSERT
+        assertEquals("Tenure must be positive", exception.getMessage());
+    }
+
+    @Test
+    public void testRunDailyAccrual_CarriesRemainderExactly() {
+
+        LoanAccrualBook book = new LoanAccrualBook();
+        book.register(loanAccountId, 10_000_000L, 12.5);
+
+        //ACT
+        int recomputed = 0;
+        for (int day = 0; day < LoanScheduleEngine.DAYS_IN_YEAR; day++) {
+            recomputed += book.runDailyAccrual(pool);
+        }
+
+        //ASSERT
+        assertEquals(1, recomputed);
+        assertEquals(1_250_000L, book.getAccruedInterest(loanAccountId));
+    }
+
+    @Test
+    public void testRunDailyAccrual_RecomputesOnlyChangedLoans() {
+
+        LoanAccrualBook book = new LoanAccrualBook();
+        for (int i = 0; i < 10_000; i++) {
+            book.register(loanAccountId + i, 10_000_000L, 12.5);
+        }
+        book.runDailyAccrual(pool);
+        book.updateOutstandingPrincipal(loanAccountId + 1, 5_000_000L);
+        book.updateInterestRate(loanAccountId + 2, 12.5);
+        long unsettled = book.close(loanAccountId + 3);
+
+        //ACT
+        int recomputed = book.runDailyAccrual(pool);
+
+        //ASSERT
+        assertEquals(1, recomputed);
+        assertEquals(6_849L, book.getAccruedInterest(loanAccountId + 0));
+        assertEquals(5_136L, book.getAccruedInterest(loanAccountId + 1));
+        assertEquals(3_424L, unsettled);
+        assertEquals(9_999, book.size());
+        assertEquals(6_849L, book.settleAccruedInterest(loanAccountId + 0));
+        assertEquals(0L, book.getAccruedInterest(loanAccountId + 0));
+    }
+
+    @Test
+    public void testClose_SlotReusedWithFreshState() {
+
+        LoanAccrualBook book = new LoanAccrualBook();
+        book.register(loanAccountId, 10_000_000L, 12.5);
+        book.runDailyAccrual(pool);
+        book.close(loanAccountId);
+
+        //ACT
+        book.register(loanAccountId + 1, 5_000_000L, 12.5);
+        book.runDailyAccrual(pool);
+
+        //ASSERT
+        assertEquals(1, book.size());
+        assertEquals(1_712L, book.getAccruedInterest(loanAccountId + 1));
+        assertThrows(IllegalArgumentException.class, () -> book.getAccruedInterest(loanAccountId));
+    }
+
+    @Test
+    public void testRegister_NegativePrincipal() {
+
+        LoanAccrualBook book = new LoanAccrualBook();
+
+        //ACT
+        IllegalArgumentException exception =
+            assertThrows(IllegalArgumentException.class, () -> book.register(loanAccountId, -1L, 12.5));
+
+        //ASSERT
+        assertEquals("Principal must be non-negative", exception.getMessage());
+        assertEquals(0, book.size());
+    }
+}
@@ -0,0 +1,359 @@
+package com.atlas.aggregate.cms.core.facade.common;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.util.JsonFormat;
+import com.google.protobuf.util.Timestamps;
+
+/**
+ * Maps MySQL rows to and from a protobuf entity (LoanAccountEntity, AccountLedgerEntity, ...). Columns
+ * are matched to proto fields by name once per result set or insert column list, and each column gets a
+ * typed reader/binder, so per-row work is an indexed loop with no name matching or descriptor lookups.
+ * The default readers still populate the builder through protobuf's FieldDescriptor accessors, which
+ * are reflective; hot entities should register typed setters with {@link #withColumnSetter} (e.g.
+ * {@code (resultSet, column, builder) -> builder.setLoanAccountId(resultSet.getString(column))}).
+ * JSON columns are read and written through JsonFormat, which also covers map and repeated fields.
+ * Unset fields with presence are bound as NULL, matching how NULL columns are read back as unset.
+ *
+ * @param <M> the entity type
+ */
+public final class ProtoJdbcMapper<M extends Message> {
+
+    private static final JsonFormat.Parser JSON_PARSER = JsonFormat.parser().ignoringUnknownFields();
+    private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer().omittingInsignificantWhitespace();
+
+    private final M defaultInstance;
+    private final Descriptor descriptor;
+    private final ConcurrentMap<String, ColumnReader> columnSetters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ColumnReader[]> readersByLayout = new ConcurrentHashMap<>();
+    private final ConcurrentMap<List<String>, ColumnBinder[]> bindersByColumns = new ConcurrentHashMap<>();
+
+    private ProtoJdbcMapper(M defaultInstance) {
+        this.defaultInstance = defaultInstance;
+        this.descriptor = defaultInstance.getDescriptorForType();
+    }
+
+    public static <M extends Message> ProtoJdbcMapper<M> of(M defaultInstance) {
+        return new ProtoJdbcMapper<>(defaultInstance);
+    }
+
+    /**
+     * Registers a typed, non-reflective setter for a column, used instead of the descriptor-based reader.
+     * The builder type must be the entity's generated builder. Register setters before the first query.
+     */
+    @SuppressWarnings("unchecked")
+    public <B extends Message.Builder> ProtoJdbcMapper<M> withColumnSetter(String column, ColumnSetter<B> setter) {
+        columnSetters.put(column.toLowerCase(Locale.ROOT), (resultSet, index, builder) -> setter.set(resultSet, index, (B) builder));
+        readersByLayout.clear();
+        return this;
+    }
+
+    public M mapRow(ResultSet resultSet) throws SQLException {
+        return mapRow(resultSet, readersFor(resultSet.getMetaData()));
+    }
+
+    public List<M> mapRows(ResultSet resultSet) throws SQLException {
+        List<M> entities = new ArrayList<>();
+        ColumnReader[] readers = readersFor(resultSet.getMetaData());
+        while (resultSet.next()) {
+            entities.add(mapRow(resultSet, readers));
+        }
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private M mapRow(ResultSet resultSet, ColumnReader[] readers) throws SQLException {
+        Message.Builder builder = defaultInstance.newBuilderForType();
+        for (int i = 0; i < readers.length; i++) {
+            if (readers[i] != null) {
+                readers[i].read(resultSet, i + 1, builder);
+            }
+        }
+        return (M) builder.build();
+    }
+
+    /**
+     * Binds the given fields of every entity, in order, as the statement's parameters and executes them
+     * with executeBatch in chunks of batchSize. Chunks are executed as they fill, so when binding or
+     * executing a later chunk fails, earlier chunks have already run; the caller's transaction decides
+     * whether they stick. On failure the rows queued for the current chunk are cleared from the
+     * statement, so a reused statement does not execute them later.
+     *
+     * @return the update counts of all executed batches
+     */
+    public int[] executeBatch(PreparedStatement statement, List<String> fieldNames, List<M> entities, int batchSize) throws SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        ColumnBinder[] binders = bindersByColumns.computeIfAbsent(List.copyOf(fieldNames), this::compileBinders);
+        int[] updateCounts = new int[entities.size()];
+        int executed = 0;
+        int pending = 0;
+        try {
+            for (M entity : entities) {
+                for (int i = 0; i < binders.length; i++) {
+                    binders[i].bind(statement, i + 1, entity);
+                }
+                statement.addBatch();
+                if (++pending == batchSize) {
+                    executed = copyCounts(statement.executeBatch(), updateCounts, executed);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                copyCounts(statement.executeBatch(), updateCounts, executed);
+            }
+        } catch (SQLException | RuntimeException e) {
+            try {
+                statement.clearBatch();
+            } catch (SQLException clearException) {
+                e.addSuppressed(clearException);
+            }
+            throw e;
+        }
+        return updateCounts;
+    }
+
+    private static int copyCounts(int[] batchCounts, int[] updateCounts, int offset) {
+        System.arraycopy(batchCounts, 0, updateCounts, offset, batchCounts.length);
+        return offset + batchCounts.length;
+    }
+
+    private ColumnReader[] readersFor(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        StringBuilder layout = new StringBuilder();
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+            layout.append(labels[i]).append(',');
+        }
+        ColumnReader[] readers = readersByLayout.get(layout.toString());
+        if (readers == null) {
+            readers = new ColumnReader[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                ColumnReader setter = columnSetters.get(labels[i]);
+                if (setter != null) {
+                    readers[i] = setter;
+                    continue;
+                }
+                FieldDescriptor field = descriptor.findFieldByName(labels[i]);
+                readers[i] = field == null ? null : compileReader(field, metaData.getColumnType(i + 1));
+            }
+            readersByLayout.putIfAbsent(layout.toString(), readers);
+        }
+        return readers;
+    }
+
+    private static ColumnReader compileReader(FieldDescriptor field, int sqlType) {
+        if (field.isRepeated() || field.getJavaType() == FieldDescriptor.JavaType.MESSAGE && !isTimestamp(field)) {
+            return (resultSet, column, builder) -> {
+                String json = resultSet.getString(column);
+                if (json != null) {
+                    mergeJson(builder, field, json);
+                }
+            };
+        }
+        return switch (field.getJavaType()) {
+            case INT -> (resultSet, column, builder) -> {
+                int value = resultSet.getInt(column);
+                if (!resultSet.wasNull()) {
+                    builder.setField(field, value);
+                }
+            };
+            case LONG -> (resultSet, column, builder) -> {
+                long value = resultSet.getLong(column);
+                if (!resultSet.wasNull()) {
+                    builder.setField(field, value);
+                }
+            };
+            case FLOAT -> (resultSet, column, builder) -> {
+                float value = resultSet.getFloat(column);
+                if (!resultSet.wasNull()) {
+                    builder.setField(field, value);
+                }
+            };
+            case DOUBLE -> (resultSet, column, builder) -> {
+                double value = resultSet.getDouble(column);
+                if (!resultSet.wasNull()) {
+                    builder.setField(field, value);
+                }
+            };
+            case BOOLEAN -> (resultSet, column, builder) -> {
+                boolean value = resultSet.getBoolean(column);
+                if (!resultSet.wasNull()) {
+                    builder.setField(field, value);
+                }
+            };
+            case STRING -> (resultSet, column, builder) -> {
+                String value = resultSet.getString(column);
+                if (value != null) {
+                    builder.setField(field, value);
+                }
+            };
+            case BYTE_STRING -> (resultSet, column, builder) -> {
+                byte[] value = resultSet.getBytes(column);
+                if (value != null) {
+                    builder.setField(field, ByteString.copyFrom(value));
+                }
+            };
+            case ENUM -> (resultSet, column, builder) -> {
+                String value = resultSet.getString(column);
+                EnumValueDescriptor enumValue = value == null ? null : field.getEnumType().findValueByName(value);
+                if (enumValue != null) {
+                    builder.setField(field, enumValue);
+                }
+            };
+            case MESSAGE -> sqlType == Types.BIGINT
+                ? (resultSet, column, builder) -> {
+                    long value = resultSet.getLong(column);
+                    if (!resultSet.wasNull()) {
+                        builder.setField(field, Timestamps.fromMillis(value));
+                    }
+                }
+                : (resultSet, column, builder) -> {
+                    java.sql.Timestamp value = resultSet.getTimestamp(column);
+                    if (value != null) {
+                        builder.setField(field, Timestamp.newBuilder()
+                            .setSeconds(Math.floorDiv(value.getTime(), 1000L))
+                            .setNanos(value.getNanos())
+                            .build());
+                    }
+                };
+        };
+    }
+
+    private ColumnBinder[] compileBinders(List<String> fieldNames) {
+        ColumnBinder[] binders = new ColumnBinder[fieldNames.size()];
+        for (int i = 0; i < binders.length; i++) {
+            FieldDescriptor field = descriptor.findFieldByName(fieldNames.get(i));
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field " + fieldNames.get(i) + " for " + descriptor.getFullName());
+            }
+            binders[i] = compileBinder(field);
+        }
+        return binders;
+    }
+
+    private ColumnBinder compileBinder(FieldDescriptor field) {
+        if (field.isRepeated()) {
+            return (statement, index, entity) -> statement.setString(index, printRepeatedJson(entity, field));
+        }
+        ColumnBinder binder = switch (field.getJavaType()) {
+            case INT, LONG, FLOAT, DOUBLE, BOOLEAN, STRING -> (statement, index, entity) -> statement.setObject(index, entity.getField(field));
+            case BYTE_STRING -> (statement, index, entity) -> statement.setBytes(index, ((ByteString) entity.getField(field)).toByteArray());
+            case ENUM -> (statement, index, entity) -> statement.setString(index, ((EnumValueDescriptor) entity.getField(field)).getName());
+            case MESSAGE -> isTimestamp(field)
+                ? (statement, index, entity) -> statement.setTimestamp(index, toSqlTimestamp((Timestamp) entity.getField(field)))
+                : (statement, index, entity) -> statement.setString(index, printJson((Message) entity.getField(field)));
+        };
+        if (!field.hasPresence()) {
+            return binder;
+        }
+        int sqlType = sqlTypeOf(field);
+        return (statement, index, entity) -> {
+            if (entity.hasField(field)) {
+                binder.bind(statement, index, entity);
+            } else {
+                statement.setNull(index, sqlType);
+            }
+        };
+    }
+
+    private static int sqlTypeOf(FieldDescriptor field) {
+        return switch (field.getJavaType()) {
+            case INT -> Types.INTEGER;
+            case LONG -> Types.BIGINT;
+            case FLOAT -> Types.REAL;
+            case DOUBLE -> Types.DOUBLE;
+            case BOOLEAN -> Types.BOOLEAN;
+            case STRING, ENUM -> Types.VARCHAR;
+            case BYTE_STRING -> Types.VARBINARY;
+            case MESSAGE -> isTimestamp(field) ? Types.TIMESTAMP : Types.VARCHAR;
+        };
+    }
+
+    /**
+     * Prints a repeated or map field as the bare JSON array/object that the reader merges back. Message
+     * lists are printed element by element; scalar lists and maps, whose JSON form depends on the field
+     * type, are printed as a message holding only that field, with the enclosing object cut off.
+     */
+    private String printRepeatedJson(Message entity, FieldDescriptor field) throws SQLException {
+        int count = entity.getRepeatedFieldCount(field);
+        if (count == 0) {
+            return field.isMapField() ? "{}" : "[]";
+        }
+        if (!field.isMapField() && field.getJavaType() == FieldDescriptor.JavaType.MESSAGE) {
+            StringBuilder json = new StringBuilder().append('[');
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(printJson((Message) entity.getRepeatedField(field, i)));
+            }
+            return json.append(']').toString();
+        }
+        String holder = printJson(defaultInstance.newBuilderForType().setField(field, entity.getField(field)).build());
+        return holder.substring(field.getJsonName().length() + 4, holder.length() - 1);
+    }
+
+    private static boolean isTimestamp(FieldDescriptor field) {
+        return field.getJavaType() == FieldDescriptor.JavaType.MESSAGE
+            && Timestamp.getDescriptor().getFullName().equals(field.getMessageType().getFullName());
+    }
+
+    private static java.sql.Timestamp toSqlTimestamp(Timestamp timestamp) {
+        java.sql.Timestamp value = new java.sql.Timestamp(timestamp.getSeconds() * 1000);
+        value.setNanos(timestamp.getNanos());
+        return value;
+    }
+
+    private static void mergeJson(Message.Builder builder, FieldDescriptor field, String json) throws SQLException {
+        try {
+            JSON_PARSER.merge("{\"" + field.getJsonName() + "\":" + json + "}", builder);
+        } catch (InvalidProtocolBufferException e) {
+            throw new SQLException("Invalid JSON in column for field " + field.getName(), e);
+        }
+    }
+
+    private static String printJson(Message message) throws SQLException {
+        try {
+            return JSON_PRINTER.print(message);
+        } catch (InvalidProtocolBufferException e) {
+            throw new SQLException("Cannot serialize field of type " + message.getDescriptorForType().getFullName(), e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ColumnSetter<B extends Message.Builder> {
+
+        void set(ResultSet resultSet, int column, B builder) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+
+        void read(ResultSet resultSet, int column, Message.Builder builder) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ColumnBinder {
+
+        void bind(PreparedStatement statement, int index, Message entity) throws SQLException;
+    }
+}
@@ -0,0 +1,199 @@
+package com.atlas.aggregate.cms.core.facade.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import com.atlas.aggregate.cms.proto.entity.LoanAccountEntity;
+
+import com.common.utility.proto.enums.Currency;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ProtoJdbcMapperTests {
+
+    private AutoCloseable closeable;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private ResultSetMetaData metaData;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private final ProtoJdbcMapper<LoanAccountEntity> mapper = ProtoJdbcMapper.of(LoanAccountEntity.getDefaultInstance());
+
+    @BeforeEach
+    public void setup() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    private final String customerProfileId = "TEST_CUSTOMER_PROFILE_ID";
+    private final String loanAccountId = "TEST_LOAN_ACCOUNT_ID";
+    private final List<String> columns = List.of("loan_account_id", "customer_profile_id", "currency");
+
+    @Test
+    public void testMapRows_Success() throws SQLException {
+
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(4);
+        when(metaData.getColumnLabel(1)).thenReturn("loan_account_id");
+        when(metaData.getColumnLabel(2)).thenReturn("customer_profile_id");
+        when(metaData.getColumnLabel(3)).thenReturn("currency");
+        when(metaData.getColumnLabel(4)).thenReturn("unmapped_column");
+        when(metaData.getColumnType(1)).thenReturn(Types.VARCHAR);
+        when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+        when(metaData.getColumnType(3)).thenReturn(Types.VARCHAR);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString(1)).thenReturn(loanAccountId, "TEST_LOAN_ACCOUNT_ID_2");
+        when(resultSet.getString(2)).thenReturn(customerProfileId);
+        when(resultSet.getString(3)).thenReturn(Currency.PKR.name());
+
+        //ACT
+        List<LoanAccountEntity> entities = mapper.mapRows(resultSet);
+
+        //ASSERT
+        assertEquals(2, entities.size());
+        assertEquals(loanAccountId, entities.get(0).getLoanAccountId());
+        assertEquals(customerProfileId, entities.get(0).getCustomerProfileId());
+        assertEquals(Currency.PKR, entities.get(0).getCurrency());
+        assertEquals("TEST_LOAN_ACCOUNT_ID_2", entities.get(1).getLoanAccountId());
+        verify(metaData, times(1)).getColumnLabel(1);
+        verify(metaData, times(1)).getColumnType(1);
+    }
+
+    @Test
+    public void testMapRows_TypedColumnSetter() throws SQLException {
+
+        mapper.<LoanAccountEntity.Builder>withColumnSetter("loan_account_id",
+            (rs, column, builder) -> builder.setLoanAccountId(rs.getString(column).toLowerCase()));
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("LOAN_ACCOUNT_ID");
+        when(metaData.getColumnLabel(2)).thenReturn("customer_profile_id");
+        when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn(loanAccountId);
+        when(resultSet.getString(2)).thenReturn(customerProfileId);
+
+        //ACT
+        List<LoanAccountEntity> entities = mapper.mapRows(resultSet);
+
+        //ASSERT
+        assertEquals(1, entities.size());
+        assertEquals(loanAccountId.toLowerCase(), entities.get(0).getLoanAccountId());
+        assertEquals(customerProfileId, entities.get(0).getCustomerProfileId());
+        verify(metaData, times(0)).getColumnType(1);
+    }
+
+    @Test
+    public void testExecuteBatch_UnsetAndRepeatedFieldsRoundTrip() throws SQLException {
+
+        ProtoJdbcMapper<DescriptorProto> descriptorMapper = ProtoJdbcMapper.of(DescriptorProto.getDefaultInstance());
+        DescriptorProto entity = DescriptorProto.newBuilder()
+            .addField(FieldDescriptorProto.newBuilder().setName("amount").setNumber(1))
+            .build();
+        when(statement.executeBatch()).thenReturn(new int[] {1});
+
+        //ACT
+        descriptorMapper.executeBatch(statement, List.of("name", "field", "options"), List.of(entity), 10);
+        ArgumentCaptor<String> fieldJson = ArgumentCaptor.forClass(String.class);
+        verify(statement).setString(anyInt(), fieldJson.capture());
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("name");
+        when(metaData.getColumnLabel(2)).thenReturn("field");
+        when(metaData.getColumnLabel(3)).thenReturn("options");
+        when(metaData.getColumnType(1)).thenReturn(Types.VARCHAR);
+        when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+        when(metaData.getColumnType(3)).thenReturn(Types.VARCHAR);
+        when(resultSet.getString(2)).thenReturn(fieldJson.getValue());
+        DescriptorProto restored = descriptorMapper.mapRow(resultSet);
+
+        //ASSERT
+        verify(statement).setNull(1, Types.VARCHAR);
+        verify(statement).setString(2, fieldJson.getValue());
+        verify(statement).setNull(3, Types.VARCHAR);
+        assertEquals(entity, restored);
+    }
+
+    @Test
+    public void testExecuteBatch_ChunksByBatchSize() throws SQLException {
+
+        LoanAccountEntity loanAccountEntity = LoanAccountEntity.newBuilder()
+            .setLoanAccountId(loanAccountId)
+            .setCustomerProfileId(customerProfileId)
+            .setCurrency(Currency.PKR)
+            .build();
+        when(statement.executeBatch()).thenReturn(new int[] {1, 1}, new int[] {1});
+
+        //ACT
+        int[] updateCounts = mapper.executeBatch(statement, columns, List.of(loanAccountEntity, loanAccountEntity, loanAccountEntity), 2);
+
+        //ASSERT
+        assertArrayEquals(new int[] {1, 1, 1}, updateCounts);
+        verify(statement, times(3)).setObject(1, loanAccountId);
+        verify(statement, times(3)).setObject(2, customerProfileId);
+        verify(statement, times(3)).setString(3, Currency.PKR.name());
+        verify(statement, times(3)).addBatch();
+        verify(statement, times(2)).executeBatch();
+    }
+
+    @Test
+    public void testExecuteBatch_BindFailureClearsQueuedRows() throws SQLException {
+
+        LoanAccountEntity loanAccountEntity = LoanAccountEntity.newBuilder()
+            .setLoanAccountId(loanAccountId)
+            .setCustomerProfileId(customerProfileId)
+            .setCurrency(Currency.PKR)
+            .build();
+        doNothing().doThrow(new SQLException("TEST_BIND_FAILURE")).when(statement).setObject(1, loanAccountId);
+
+        //ACT
+        SQLException exception = assertThrows(SQLException.class,
+            () -> mapper.executeBatch(statement, columns, List.of(loanAccountEntity, loanAccountEntity), 10));
+
+        //ASSERT
+        assertEquals("TEST_BIND_FAILURE", exception.getMessage());
+        verify(statement, times(1)).addBatch();
+        verify(statement, times(1)).clearBatch();
+        verify(statement, never()).executeBatch();
+    }
+
+    @Test
+    public void testExecuteBatch_UnknownField() {
+
+        //ACT
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> mapper.executeBatch(statement, List.of("unknown_field"), List.of(LoanAccountEntity.getDefaultInstance()), 10));
+
+        //ASSERT
+        assertEquals("Unknown field unknown_field for " + LoanAccountEntity.getDescriptor().getFullName(), exception.getMessage());
+    }
+}
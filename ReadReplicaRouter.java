@@ -0,0 +1,146 @@
+package com.atlas.aggregate.cms.core.datasource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Routes data access between the primary provider (e.g. MysqlProvider) and a pool of read replicas.
+ * Writes and any read inside a write transaction go to the primary. Other reads go round-robin to a
+ * replica whose measured lag is within bounds and which has already caught up with the session's last
+ * write, which gives read-your-writes without a fixed pinning period. A session's write time is taken
+ * when the write completes, not when it is routed, so a replica is never treated as having a write it
+ * could not have applied yet. Each lag probe is stored as the
+ * replica's caught-up point (probe time minus lag), so an aging sample only ever makes the replica look
+ * further behind, never ahead of what it has actually applied.
+ *
+ * @param <P> the provider type
+ */
+public class ReadReplicaRouter<P> {
+
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    private final P primary;
+    private final List<P> replicas;
+    private final Clock clock;
+    private final long maxLagMillis;
+    private final AtomicLongArray replicaCaughtUpMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> lastWriteMillisBySession = new ConcurrentHashMap<>();
+    private final ThreadLocal<Integer> writeTransactionDepth = ThreadLocal.withInitial(() -> 0);
+
+    public ReadReplicaRouter(P primary, List<P> replicas, Clock clock, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.clock = clock;
+        this.maxLagMillis = maxLag.toMillis();
+        this.replicaCaughtUpMillis = new AtomicLongArray(this.replicas.size());
+        for (int i = 0; i < this.replicas.size(); i++) {
+            replicaCaughtUpMillis.set(i, UNKNOWN);
+        }
+    }
+
+    /**
+     * Runs a write against the primary and records the session's write time once it has completed.
+     */
+    public <T> T write(String sessionId, Function<P, T> work) {
+        return inWriteTransaction(sessionId, () -> work.apply(primary));
+    }
+
+    public P forRead(String sessionId) {
+        if (writeTransactionDepth.get() > 0 || replicas.isEmpty()) {
+            return primary;
+        }
+        Long lastWriteMillis = lastWriteMillisBySession.get(sessionId);
+        long oldestAcceptedMillis = clock.millis() - maxLagMillis;
+        if (lastWriteMillis != null && lastWriteMillis > oldestAcceptedMillis) {
+            oldestAcceptedMillis = lastWriteMillis;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            long caughtUpMillis = replicaCaughtUpMillis.get(index);
+            if (caughtUpMillis != UNKNOWN && caughtUpMillis >= oldestAcceptedMillis) {
+                return replicas.get(index);
+            }
+        }
+        return primary;
+    }
+
+    /**
+     * Runs the given work with every read routed to the primary, for use around write transactions.
+     */
+    public <T> T inWriteTransaction(String sessionId, Supplier<T> work) {
+        writeTransactionDepth.set(writeTransactionDepth.get() + 1);
+        try {
+            return work.get();
+        } finally {
+            int depth = writeTransactionDepth.get() - 1;
+            if (depth == 0) {
+                writeTransactionDepth.remove();
+            } else {
+                writeTransactionDepth.set(depth);
+            }
+            lastWriteMillisBySession.merge(sessionId, clock.millis(), Math::max);
+        }
+    }
+
+    /**
+     * Records a lag sample taken now. A negative lag marks the replica unknown and takes it out of rotation.
+     */
+    public void updateReplicaLag(int replicaIndex, long lagMillis) {
+        updateReplicaLag(replicaIndex, lagMillis, clock.millis());
+    }
+
+    public void updateReplicaLag(int replicaIndex, long lagMillis, long probeTimeMillis) {
+        replicaCaughtUpMillis.set(replicaIndex, lagMillis < 0 ? UNKNOWN : probeTimeMillis - lagMillis);
+    }
+
+    /**
+     * Returns the replica's lag as of now, assuming it applied nothing since its last sample, or
+     * {@link Long#MAX_VALUE} when unknown.
+     */
+    public long getReplicaLag(int replicaIndex) {
+        long caughtUpMillis = replicaCaughtUpMillis.get(replicaIndex);
+        return caughtUpMillis == UNKNOWN ? Long.MAX_VALUE : clock.millis() - caughtUpMillis;
+    }
+
+    /**
+     * Forgets sessions whose last write is older than the maximum tolerated lag, since every eligible
+     * replica has caught up with them.
+     */
+    public void expireSessions() {
+        long cutoff = clock.millis() - maxLagMillis;
+        lastWriteMillisBySession.values().removeIf(lastWriteMillis -> lastWriteMillis < cutoff);
+    }
+
+    /**
+     * Periodically probes each replica's lag (a negative probe result marks it unknown) and expires
+     * sessions that no longer need pinning.
+     */
+    public ScheduledFuture<?> scheduleLagMonitor(ScheduledExecutorService executor, Duration interval, ToLongFunction<P> lagProbe) {
+        return executor.scheduleWithFixedDelay(() -> {
+            for (int i = 0; i < replicas.size(); i++) {
+                long probeTimeMillis = clock.millis();
+                long lag;
+                try {
+                    lag = lagProbe.applyAsLong(replicas.get(i));
+                } catch (RuntimeException e) {
+                    lag = -1;
+                }
+                updateReplicaLag(i, lag, probeTimeMillis);
+            }
+            expireSessions();
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
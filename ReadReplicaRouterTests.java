@@ -0,0 +1,136 @@
+package com.atlas.aggregate.cms.core.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ReadReplicaRouterTests {
+
+    private AutoCloseable closeable;
+
+    @Mock
+    private Clock clock;
+
+    private ReadReplicaRouter<String> router;
+
+    @BeforeEach
+    public void setup() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(startMillis);
+        router = new ReadReplicaRouter<>(primary, List.of(replica1, replica2), clock, Duration.ofSeconds(5));
+        router.updateReplicaLag(0, 100);
+        router.updateReplicaLag(1, 200);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    private final String primary = "TEST_PRIMARY";
+    private final String replica1 = "TEST_REPLICA_1";
+    private final String replica2 = "TEST_REPLICA_2";
+    private final String sessionId = "TEST_CUSTOMER_PROFILE_ID";
+    private final long startMillis = 1_000_000L;
+
+    @Test
+    public void testForRead_RoundRobinAcrossReplicas() {
+
+        //ACT & ASSERT
+        assertEquals(replica1, router.forRead(sessionId));
+        assertEquals(replica2, router.forRead(sessionId));
+        assertEquals(replica1, router.forRead(sessionId));
+    }
+
+    @Test
+    public void testForRead_PinnedToPrimaryUntilReplicaCatchesUp() {
+
+        assertEquals(primary, router.write(sessionId, provider -> provider));
+
+        //ACT & ASSERT
+        assertEquals(primary, router.forRead(sessionId));
+        assertEquals(replica2, router.forRead("OTHER_SESSION_ID"));
+
+        when(clock.millis()).thenReturn(startMillis + 150);
+        assertEquals(primary, router.forRead(sessionId));
+
+        router.updateReplicaLag(0, 100);
+        assertEquals(replica1, router.forRead(sessionId));
+        assertEquals(replica1, router.forRead(sessionId));
+    }
+
+    @Test
+    public void testForRead_LaggingOrUnknownReplicasSkipped() {
+
+        router.updateReplicaLag(0, Duration.ofSeconds(10).toMillis());
+        router.updateReplicaLag(1, -1);
+
+        //ACT & ASSERT
+        assertEquals(primary, router.forRead(sessionId));
+
+        router.updateReplicaLag(1, 50);
+        assertEquals(replica2, router.forRead(sessionId));
+    }
+
+    @Test
+    public void testInWriteTransaction_ReadsGoToPrimary() {
+
+        //ACT
+        String routed = router.inWriteTransaction(sessionId, () -> router.forRead(sessionId));
+
+        //ASSERT
+        assertEquals(primary, routed);
+        assertEquals(primary, router.forRead(sessionId));
+
+        when(clock.millis()).thenReturn(startMillis + Duration.ofSeconds(6).toMillis());
+        router.expireSessions();
+        assertEquals(primary, router.forRead(sessionId));
+
+        router.updateReplicaLag(0, 100);
+        router.updateReplicaLag(1, 200);
+        assertEquals(replica1, router.forRead(sessionId));
+    }
+
+    @Test
+    public void testForRead_StaleLagSampleDoesNotSatisfyReadYourWrites() {
+
+        when(clock.millis()).thenReturn(startMillis + 1_000);
+        router.write(sessionId, provider -> provider);
+        when(clock.millis()).thenReturn(startMillis + 1_500);
+
+        //ACT & ASSERT
+        assertEquals(primary, router.forRead(sessionId));
+        assertEquals(1_700, router.getReplicaLag(1));
+
+        router.updateReplicaLag(1, 400, startMillis + 1_450);
+        assertEquals(replica2, router.forRead(sessionId));
+    }
+
+    @Test
+    public void testWrite_RecordedWhenWriteCompletes() {
+
+        when(clock.millis()).thenReturn(startMillis + 1_000);
+
+        //ACT
+        router.write(sessionId, provider -> {
+            when(clock.millis()).thenReturn(startMillis + 1_400);
+            return provider;
+        });
+        router.updateReplicaLag(1, 250, startMillis + 1_450);
+
+        //ASSERT
+        assertEquals(primary, router.forRead(sessionId));
+
+        router.updateReplicaLag(1, 40, startMillis + 1_450);
+        assertEquals(replica2, router.forRead(sessionId));
+    }
+}
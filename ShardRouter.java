@@ -0,0 +1,333 @@
+package com.atlas.aggregate.cms.core.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Routes loan account data to a shard (e.g. one MysqlProvider per MySQL node) by a consistent hash of
+ * customer_profile_id. A shard split adds a new shard in phases: while it is pending, profiles that
+ * will move keep reading from their current shard and are written to both, so a backfill can copy
+ * their existing rows; {@link #commitSplit()} then switches reads over, and the source shards keep
+ * stale copies of the moved rows until {@link #completeCleanup()}. Topology changes swap an immutable,
+ * numbered snapshot (the epoch), so routing never sees a half-applied change, and writes hold a
+ * {@link WriteLease} on the epoch they were routed under so a split can wait for older writers. Writes
+ * to a moving profile and that profile's backfill copy exclude each other through striped per-profile
+ * locks, so in-place UPDATEs and DELETEs are never lost or undone by the copy.
+ *
+ * @param <P> the provider type
+ */
+public class ShardRouter<P> {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int PROFILE_LOCK_STRIPES = 256;
+
+    private final int virtualNodesPerShard;
+    private final AtomicReference<Topology<P>> topology;
+    private final List<Topology<P>> retiredTopologies = new ArrayList<>();
+    private final ReadWriteLock[] profileLocks = new ReadWriteLock[PROFILE_LOCK_STRIPES];
+
+    public ShardRouter(Map<String, P> shards, int virtualNodesPerShard) {
+        if (shards.isEmpty() || virtualNodesPerShard <= 0) {
+            throw new IllegalArgumentException("At least one shard and one virtual node per shard are required");
+        }
+        this.virtualNodesPerShard = virtualNodesPerShard;
+        for (int i = 0; i < PROFILE_LOCK_STRIPES; i++) {
+            profileLocks[i] = new ReentrantReadWriteLock();
+        }
+        Map<String, P> providers = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        this.topology = new AtomicReference<>(new Topology<>(0, providers, buildRing(providers.keySet()), null, null, null));
+    }
+
+    public P forRead(String customerProfileId) {
+        Topology<P> current = topology.get();
+        return current.providers().get(ownerOf(current.ring(), customerProfileId));
+    }
+
+    /**
+     * Returns a lease on the shards a write must go to: the owning shard, plus the split target while a
+     * pending split is moving this profile. The write must be done while the lease is open and the lease
+     * closed afterwards, on the same thread, which is what {@link #awaitWritersDrained} waits for. A lease
+     * on a moving profile also holds that profile's lock shared, so it waits for a running
+     * {@link #backfill} of the profile and holds the next one off until it is closed.
+     */
+    public WriteLease<P> forWrite(String customerProfileId) {
+        Topology<P> current;
+        while (true) {
+            current = topology.get();
+            current.writers().incrementAndGet();
+            if (topology.get() == current) {
+                break;
+            }
+            current.writers().decrementAndGet();
+        }
+        String owner = ownerOf(current.ring(), customerProfileId);
+        String pendingOwner = current.pendingRing() == null ? owner : ownerOf(current.pendingRing(), customerProfileId);
+        if (owner.equals(pendingOwner)) {
+            return new WriteLease<>(List.of(current.providers().get(owner)), current.epoch(), current.writers(), null);
+        }
+        Lock lock = profileLockOf(customerProfileId).readLock();
+        lock.lock();
+        return new WriteLease<>(List.of(current.providers().get(owner), current.providers().get(pendingOwner)), current.epoch(),
+            current.writers(), lock);
+    }
+
+    /**
+     * Copies a moving profile's rows from its current shard to the split target. The copy is given the
+     * (source, target) providers and must read the profile's rows from the source and write that image
+     * to the target, replacing any rows already there. It runs under the profile's exclusive lock, so
+     * every dual write of the profile lands either wholly before the copy (and is read by it) or wholly
+     * after it (and finds the copied rows on the target).
+     */
+    public void backfill(String customerProfileId, BiConsumer<P, P> copy) {
+        Topology<P> current = topology.get();
+        if (!isMoving(current, customerProfileId)) {
+            throw new IllegalStateException("Profile is not moving in a pending split: " + customerProfileId);
+        }
+        P source = current.providers().get(ownerOf(current.ring(), customerProfileId));
+        P target = current.providers().get(current.pendingShardId());
+        Lock lock = profileLockOf(customerProfileId).writeLock();
+        lock.lock();
+        try {
+            copy.accept(source, target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEpoch() {
+        return topology.get().epoch();
+    }
+
+    public String shardOf(String customerProfileId) {
+        return ownerOf(topology.get().ring(), customerProfileId);
+    }
+
+    /**
+     * True when a pending split moves this profile to the new shard, i.e. its rows must be backfilled.
+     */
+    public boolean isMoving(String customerProfileId) {
+        return isMoving(topology.get(), customerProfileId);
+    }
+
+    private static boolean isMoving(Topology<?> current, String customerProfileId) {
+        return current.pendingRing() != null
+            && current.pendingShardId().equals(ownerOf(current.pendingRing(), customerProfileId));
+    }
+
+    /**
+     * Starts a split onto a new shard and moves to a new epoch. From here on, writes to moving profiles
+     * go to both their current shard and the new one. Writers that were routed under an earlier epoch
+     * may still be writing to the current shard only, so the backfill must not read a moving profile's
+     * rows until {@link #awaitWritersDrained} has returned true; any write that lands after that is
+     * dual-written. Then copy every profile for which {@link #isMoving} is true through
+     * {@link #backfill}, which serializes the copy against that profile's writers, and call
+     * {@link #commitSplit()} (or {@link #abortSplit()}). Dual writes may be ordinary UPDATEs and DELETEs:
+     * one that runs before the copy matches nothing on the target but is already in the source rows the
+     * copy reads, and one that runs after it matches the copied rows.
+     */
+    public synchronized void beginSplit(String newShardId, P provider) {
+        Topology<P> current = topology.get();
+        if (current.pendingShardId() != null) {
+            throw new IllegalStateException("Shard split already in progress: " + current.pendingShardId());
+        }
+        if (current.cleanupShardId() != null) {
+            throw new IllegalStateException("Shard cleanup still pending: " + current.cleanupShardId());
+        }
+        if (current.providers().containsKey(newShardId)) {
+            throw new IllegalArgumentException("Shard already exists: " + newShardId);
+        }
+        Map<String, P> providers = new LinkedHashMap<>(current.providers());
+        providers.put(newShardId, provider);
+        swap(new Topology<>(current.epoch() + 1, Collections.unmodifiableMap(providers), current.ring(), buildRing(providers.keySet()),
+            newShardId, null));
+    }
+
+    /**
+     * Makes the pending shard own its ranges. Call only after the backfill of every moving profile is
+     * complete; dual writes have kept the new shard current since {@link #beginSplit}. The source shards
+     * still hold the moved rows until they are deleted and {@link #completeCleanup()} is called; delete
+     * them only after {@link #awaitWritersDrained} has returned true, since earlier dual writers may still
+     * be writing to the source.
+     */
+    public synchronized void commitSplit() {
+        Topology<P> current = topology.get();
+        if (current.pendingShardId() == null) {
+            throw new IllegalStateException("No shard split in progress");
+        }
+        swap(new Topology<>(current.epoch() + 1, current.providers(), current.pendingRing(), null, null, current.pendingShardId()));
+    }
+
+    /**
+     * Ends the cleanup phase of a committed split, once the moved rows have been deleted from their
+     * source shards (e.g. by a {@link #fanOut} that removes every row its shard does not own).
+     */
+    public synchronized void completeCleanup() {
+        Topology<P> current = topology.get();
+        if (current.cleanupShardId() == null) {
+            throw new IllegalStateException("No shard cleanup pending");
+        }
+        swap(new Topology<>(current.epoch() + 1, current.providers(), current.ring(), null, null, null));
+    }
+
+    public synchronized void abortSplit() {
+        Topology<P> current = topology.get();
+        if (current.pendingShardId() == null) {
+            throw new IllegalStateException("No shard split in progress");
+        }
+        Map<String, P> providers = new LinkedHashMap<>(current.providers());
+        providers.remove(current.pendingShardId());
+        swap(new Topology<>(current.epoch() + 1, Collections.unmodifiableMap(providers), current.ring(), null, null, null));
+    }
+
+    public boolean isCleanupPending() {
+        return topology.get().cleanupShardId() != null;
+    }
+
+    /**
+     * Waits until every write lease taken under an earlier epoch has been closed.
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean awaitWritersDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<Topology<P>> draining;
+        synchronized (this) {
+            draining = List.copyOf(retiredTopologies);
+        }
+        for (Topology<P> retired : draining) {
+            while (retired.writers().get() > 0) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(DRAIN_POLL_NANOS);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+        synchronized (this) {
+            retiredTopologies.removeIf(retired -> draining.stream().anyMatch(drained -> drained == retired));
+        }
+        return true;
+    }
+
+    /**
+     * Runs the query against every active shard in parallel and returns the results in shard order. The
+     * query is also given the shard's ownership test for customer_profile_id. While a committed split is
+     * still being cleaned up, source shards also hold copies of moved rows, so a query that counts or
+     * lists rows must keep only those its shard owns or it will see duplicates.
+     */
+    public <T> List<T> fanOut(BiFunction<P, Predicate<String>, T> query, Executor executor) {
+        Topology<P> current = topology.get();
+        Set<String> activeShards = Set.copyOf(current.ring().values());
+        boolean filtered = current.cleanupShardId() != null;
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        current.providers().forEach((shardId, provider) -> {
+            if (activeShards.contains(shardId)) {
+                Predicate<String> owns = filtered ? customerProfileId -> shardId.equals(ownerOf(current.ring(), customerProfileId))
+                    : customerProfileId -> true;
+                futures.add(CompletableFuture.supplyAsync(() -> query.apply(provider, owns), executor));
+            }
+        });
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void swap(Topology<P> next) {
+        retiredTopologies.add(topology.get());
+        topology.set(next);
+    }
+
+    private NavigableMap<Long, String> buildRing(Set<String> shardIds) {
+        NavigableMap<Long, String> ring = new TreeMap<>();
+        for (String shardId : shardIds) {
+            for (int i = 0; i < virtualNodesPerShard; i++) {
+                ring.put(hash(shardId + "#" + i), shardId);
+            }
+        }
+        return Collections.unmodifiableNavigableMap(ring);
+    }
+
+    private static String ownerOf(NavigableMap<Long, String> ring, String customerProfileId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(customerProfileId));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    private ReadWriteLock profileLockOf(String customerProfileId) {
+        return profileLocks[Math.floorMod(customerProfileId.hashCode(), PROFILE_LOCK_STRIPES)];
+    }
+
+    private static long hash(String value) {
+        return HASH_FUNCTION.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+
+    private record Topology<P>(long epoch, Map<String, P> providers, NavigableMap<Long, String> ring, NavigableMap<Long, String> pendingRing,
+                               String pendingShardId, String cleanupShardId, AtomicInteger writers) {
+
+        private Topology(long epoch, Map<String, P> providers, NavigableMap<Long, String> ring, NavigableMap<Long, String> pendingRing,
+                         String pendingShardId, String cleanupShardId) {
+            this(epoch, providers, ring, pendingRing, pendingShardId, cleanupShardId, new AtomicInteger());
+        }
+    }
+
+    /**
+     * The shards one write goes to, held open for the duration of the write.
+     */
+    public static final class WriteLease<P> implements AutoCloseable {
+
+        private final List<P> shards;
+        private final long epoch;
+        private final AtomicInteger writers;
+        private final Lock profileLock;
+        private boolean closed;
+
+        private WriteLease(List<P> shards, long epoch, AtomicInteger writers, Lock profileLock) {
+            this.shards = shards;
+            this.epoch = epoch;
+            this.writers = writers;
+            this.profileLock = profileLock;
+        }
+
+        public List<P> shards() {
+            return shards;
+        }
+
+        public long epoch() {
+            return epoch;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (profileLock != null) {
+                    profileLock.unlock();
+                }
+                writers.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.atlas.aggregate.cms.core.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ShardRouterTests {
+
+    private ExecutorService executor;
+
+    private Map<String, Map<String, String>> shards;
+
+    private ShardRouter<Map<String, String>> shardRouter;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+        shards = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            shards.put("TEST_SHARD_" + i, new ConcurrentHashMap<>());
+        }
+        shardRouter = new ShardRouter<>(shards, 128);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private final int profileCount = 3000;
+    private final String customerProfileIdPrefix = "TEST_CUSTOMER_PROFILE_ID_";
+
+    private void write(String customerProfileId, String value) {
+        try (ShardRouter.WriteLease<Map<String, String>> lease = shardRouter.forWrite(customerProfileId)) {
+            lease.shards().forEach(shard -> shard.put(customerProfileId, value));
+        }
+    }
+
+    private void update(String customerProfileId, String value) {
+        try (ShardRouter.WriteLease<Map<String, String>> lease = shardRouter.forWrite(customerProfileId)) {
+            lease.shards().forEach(shard -> shard.computeIfPresent(customerProfileId, (id, current) -> value));
+        }
+    }
+
+    private void delete(String customerProfileId) {
+        try (ShardRouter.WriteLease<Map<String, String>> lease = shardRouter.forWrite(customerProfileId)) {
+            lease.shards().forEach(shard -> shard.remove(customerProfileId));
+        }
+    }
+
+    private String firstMovingProfileId() {
+        for (int i = 0; ; i++) {
+            if (shardRouter.isMoving(customerProfileIdPrefix + i)) {
+                return customerProfileIdPrefix + i;
+            }
+        }
+    }
+
+    private static int countOwned(Map<String, String> shard, Predicate<String> owns) {
+        return (int) shard.keySet().stream().filter(owns).count();
+    }
+
+    @Test
+    public void testForRead_RoutesConsistentlyAcrossShards() {
+
+        for (int i = 0; i < profileCount; i++) {
+            write(customerProfileIdPrefix + i, "TEST_LOAN_ACCOUNT_" + i);
+        }
+
+        //ACT
+        List<Integer> shardSizes = shardRouter.fanOut((shard, owns) -> shard.size(), executor);
+
+        //ASSERT
+        assertEquals(3, shardSizes.size());
+        assertEquals(profileCount, shardSizes.stream().mapToInt(Integer::intValue).sum());
+        shardSizes.forEach(size -> assertTrue(size > profileCount / 6));
+        for (int i = 0; i < profileCount; i++) {
+            assertEquals("TEST_LOAN_ACCOUNT_" + i, shardRouter.forRead(customerProfileIdPrefix + i).get(customerProfileIdPrefix + i));
+        }
+    }
+
+    @Test
+    public void testSplit_DualWriteAndBackfillKeepsEveryProfileReadable() throws InterruptedException {
+
+        for (int i = 0; i < profileCount; i++) {
+            write(customerProfileIdPrefix + i, "TEST_LOAN_ACCOUNT_" + i);
+        }
+        Map<String, String> newShard = new ConcurrentHashMap<>();
+
+        //ACT
+        shardRouter.beginSplit("TEST_SHARD_3", newShard);
+        assertTrue(shardRouter.awaitWritersDrained(Duration.ofSeconds(1)));
+        write(customerProfileIdPrefix + 0, "TEST_UPDATED_LOAN_ACCOUNT");
+        int moving = 0;
+        for (int i = 0; i < profileCount; i++) {
+            String customerProfileId = customerProfileIdPrefix + i;
+            if (shardRouter.isMoving(customerProfileId)) {
+                moving++;
+                shardRouter.backfill(customerProfileId, (source, target) -> target.put(customerProfileId, source.get(customerProfileId)));
+            }
+        }
+        shardRouter.commitSplit();
+        List<Integer> ownedCounts = shardRouter.fanOut(ShardRouterTests::countOwned, executor);
+        assertTrue(shardRouter.awaitWritersDrained(Duration.ofSeconds(1)));
+        shardRouter.fanOut((shard, owns) -> shard.keySet().removeIf(owns.negate()), executor);
+        shardRouter.completeCleanup();
+
+        //ASSERT
+        assertEquals(profileCount, ownedCounts.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(profileCount, shardRouter.fanOut((shard, owns) -> shard.size(), executor).stream().mapToInt(Integer::intValue).sum());
+        assertFalse(shardRouter.isCleanupPending());
+        assertTrue(moving > profileCount / 8);
+        assertTrue(moving < profileCount / 2);
+        assertEquals(moving, newShard.size());
+        assertEquals("TEST_UPDATED_LOAN_ACCOUNT", shardRouter.forRead(customerProfileIdPrefix + 0).get(customerProfileIdPrefix + 0));
+        for (int i = 1; i < profileCount; i++) {
+            assertEquals("TEST_LOAN_ACCOUNT_" + i, shardRouter.forRead(customerProfileIdPrefix + i).get(customerProfileIdPrefix + i));
+        }
+        assertEquals(4, ownedCounts.size());
+    }
+
+    @Test
+    public void testBackfill_UpdateDuringCopyIsNotLost() throws Exception {
+
+        for (int i = 0; i < profileCount; i++) {
+            write(customerProfileIdPrefix + i, "TEST_LOAN_ACCOUNT_" + i);
+        }
+        Map<String, String> newShard = new ConcurrentHashMap<>();
+        shardRouter.beginSplit("TEST_SHARD_3", newShard);
+        String movingProfileId = firstMovingProfileId();
+
+        //ACT
+        Future<?>[] racedUpdate = new Future<?>[1];
+        shardRouter.backfill(movingProfileId, (source, target) -> {
+            String row = source.get(movingProfileId);
+            racedUpdate[0] = executor.submit(() -> update(movingProfileId, "TEST_UPDATED_LOAN_ACCOUNT"));
+            assertThrows(TimeoutException.class, () -> racedUpdate[0].get(50, TimeUnit.MILLISECONDS));
+            target.put(movingProfileId, row);
+        });
+        racedUpdate[0].get(1, TimeUnit.SECONDS);
+        shardRouter.commitSplit();
+
+        //ASSERT
+        assertEquals("TEST_UPDATED_LOAN_ACCOUNT", shardRouter.forRead(movingProfileId).get(movingProfileId));
+    }
+
+    @Test
+    public void testBackfill_DeleteDuringCopyIsNotUndone() throws Exception {
+
+        for (int i = 0; i < profileCount; i++) {
+            write(customerProfileIdPrefix + i, "TEST_LOAN_ACCOUNT_" + i);
+        }
+        Map<String, String> newShard = new ConcurrentHashMap<>();
+        shardRouter.beginSplit("TEST_SHARD_3", newShard);
+        String movingProfileId = firstMovingProfileId();
+
+        //ACT
+        Future<?>[] racedDelete = new Future<?>[1];
+        shardRouter.backfill(movingProfileId, (source, target) -> {
+            String row = source.get(movingProfileId);
+            racedDelete[0] = executor.submit(() -> delete(movingProfileId));
+            assertThrows(TimeoutException.class, () -> racedDelete[0].get(50, TimeUnit.MILLISECONDS));
+            target.put(movingProfileId, row);
+        });
+        racedDelete[0].get(1, TimeUnit.SECONDS);
+        shardRouter.commitSplit();
+
+        //ASSERT
+        assertNull(shardRouter.forRead(movingProfileId).get(movingProfileId));
+        assertFalse(newShard.containsKey(movingProfileId));
+    }
+
+    @Test
+    public void testBeginSplit_WaitsForOlderEpochWriters() throws InterruptedException {
+
+        ShardRouter.WriteLease<Map<String, String>> lease = shardRouter.forWrite(customerProfileIdPrefix + 0);
+
+        //ACT
+        shardRouter.beginSplit("TEST_SHARD_3", new ConcurrentHashMap<>());
+        boolean drainedWhileOpen = shardRouter.awaitWritersDrained(Duration.ofMillis(20));
+        lease.close();
+        boolean drainedAfterClose = shardRouter.awaitWritersDrained(Duration.ofSeconds(1));
+
+        //ASSERT
+        assertEquals(0, lease.epoch());
+        assertEquals(1, lease.shards().size());
+        assertEquals(1, shardRouter.getEpoch());
+        assertFalse(drainedWhileOpen);
+        assertTrue(drainedAfterClose);
+    }
+
+    @Test
+    public void testBeginSplit_CleanupPending() {
+
+        shardRouter.beginSplit("TEST_SHARD_3", new HashMap<>());
+        shardRouter.commitSplit();
+
+        //ACT
+        IllegalStateException exception =
+            assertThrows(IllegalStateException.class, () -> shardRouter.beginSplit("TEST_SHARD_4", new HashMap<>()));
+
+        //ASSERT
+        assertEquals("Shard cleanup still pending: TEST_SHARD_3", exception.getMessage());
+        assertTrue(shardRouter.isCleanupPending());
+    }
+
+    @Test
+    public void testSplit_ReadsStayOnSourceUntilCommit() {
+
+        Map<String, String> newShard = new HashMap<>();
+        shardRouter.beginSplit("TEST_SHARD_3", newShard);
+        String movingProfileId = firstMovingProfileId();
+
+        //ACT & ASSERT
+        assertNotEquals("TEST_SHARD_3", shardRouter.shardOf(movingProfileId));
+        try (ShardRouter.WriteLease<Map<String, String>> lease = shardRouter.forWrite(movingProfileId)) {
+            assertEquals(2, lease.shards().size());
+        }
+        assertEquals(3, shardRouter.fanOut((shard, owns) -> shard.size(), executor).size());
+
+        shardRouter.abortSplit();
+        assertFalse(shardRouter.isMoving(movingProfileId));
+        try (ShardRouter.WriteLease<Map<String, String>> lease = shardRouter.forWrite(movingProfileId)) {
+            assertEquals(1, lease.shards().size());
+        }
+
+        shardRouter.beginSplit("TEST_SHARD_3", newShard);
+        shardRouter.commitSplit();
+        assertSame(newShard, shardRouter.forRead(movingProfileId));
+    }
+
+    @Test
+    public void testBeginSplit_AlreadyInProgress() {
+
+        shardRouter.beginSplit("TEST_SHARD_3", new HashMap<>());
+
+        //ACT
+        IllegalStateException exception =
+            assertThrows(IllegalStateException.class, () -> shardRouter.beginSplit("TEST_SHARD_4", new HashMap<>()));
+
+        //ASSERT
+        assertEquals("Shard split already in progress: TEST_SHARD_3", exception.getMessage());
+    }
+}
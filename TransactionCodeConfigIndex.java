@@ -0,0 +1,104 @@
+package com.atlas.aggregate.cms.core.helper.transactioncode;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.atlas.aggregate.common.proto.TransactionCodeConfigDTO;
+
+import com.common.utility.proto.rule.ConditionConfigsDTO;
+
+/**
+ * In-process index of transaction code configs keyed by txn_code / txn_type / sub_txn_type. Condition
+ * rules are compiled to predicates once per load, and lookups fall back from the exact key to
+ * (txn_code, txn_type) and then to txn_code alone. {@link #refresh()} builds a complete new snapshot
+ * and swaps it in atomically, so readers never see a partially loaded index and a failed load keeps
+ * serving the previous one. Refreshes are serialized, so an overlapping startup load and change-event
+ * refresh cannot leave the older loader result in place.
+ *
+ * @param <T> the transaction context the compiled conditions are evaluated against
+ */
+public class TransactionCodeConfigIndex<T> {
+
+    public static final String ANY = "*";
+
+    private final Supplier<Collection<Definition>> loader;
+    private final Function<ConditionConfigsDTO, Predicate<T>> conditionCompiler;
+    private final AtomicReference<Map<Key, Entry<T>>> snapshot = new AtomicReference<>(Map.of());
+
+    public TransactionCodeConfigIndex(Supplier<Collection<Definition>> loader, Function<ConditionConfigsDTO, Predicate<T>> conditionCompiler) {
+        this.loader = loader;
+        this.conditionCompiler = conditionCompiler;
+    }
+
+    public synchronized void refresh() {
+        Collection<Definition> definitions = loader.get();
+        Map<Key, Entry<T>> entries = new HashMap<>(definitions.size() * 2);
+        for (Definition definition : definitions) {
+            Predicate<T> condition = definition.conditions().stream()
+                .map(conditionCompiler)
+                .reduce(Predicate::and)
+                .orElse(context -> true);
+            if (entries.putIfAbsent(definition.key(), new Entry<>(definition.config(), condition)) != null) {
+                throw new IllegalStateException("Duplicate transaction code config for " + definition.key());
+            }
+        }
+        snapshot.set(Map.copyOf(entries));
+    }
+
+    public int size() {
+        return snapshot.get().size();
+    }
+
+    public Optional<TransactionCodeConfigDTO> getConfig(String txnCode, String txnType, String subTxnType) {
+        Map<Key, Entry<T>> entries = snapshot.get();
+        for (Key key : fallbackChain(txnCode, txnType, subTxnType)) {
+            Entry<T> entry = entries.get(key);
+            if (entry != null) {
+                return Optional.of(entry.config());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Walks from the most specific key to txn_code alone and returns the first config whose compiled
+     * conditions hold for the given context.
+     */
+    public Optional<TransactionCodeConfigDTO> resolve(String txnCode, String txnType, String subTxnType, T context) {
+        Map<Key, Entry<T>> entries = snapshot.get();
+        for (Key key : fallbackChain(txnCode, txnType, subTxnType)) {
+            Entry<T> entry = entries.get(key);
+            if (entry != null && entry.condition().test(context)) {
+                return Optional.of(entry.config());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Key[] fallbackChain(String txnCode, String txnType, String subTxnType) {
+        return new Key[] {new Key(txnCode, txnType, subTxnType), new Key(txnCode, txnType, ANY), new Key(txnCode, ANY, ANY)};
+    }
+
+    public record Key(String txnCode, String txnType, String subTxnType) {
+
+        public Key {
+            Objects.requireNonNull(txnCode, "txnCode");
+            txnType = txnType == null || txnType.isEmpty() ? ANY : txnType;
+            subTxnType = subTxnType == null || subTxnType.isEmpty() ? ANY : subTxnType;
+        }
+    }
+
+    public record Definition(Key key, TransactionCodeConfigDTO config, List<ConditionConfigsDTO> conditions) {
+    }
+
+    private record Entry<T>(TransactionCodeConfigDTO config, Predicate<T> condition) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.atlas.aggregate.cms.core.helper.transactioncode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.atlas.aggregate.common.proto.TransactionCodeConfigDTO;
+
+import com.common.utility.proto.rule.ConditionConfigsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TransactionCodeConfigIndexTests {
+
+    private List<TransactionCodeConfigIndex.Definition> definitions;
+
+    private TransactionCodeConfigIndex<Double> index;
+
+    private final String txnCode = "TEST_TXN_CODE";
+    private final String txnType = "TEST_TXN_TYPE";
+    private final String subTxnType = "TEST_SUB_TXN_TYPE";
+    private final TransactionCodeConfigDTO config = TransactionCodeConfigDTO.getDefaultInstance();
+
+    @BeforeEach
+    public void setup() {
+        definitions = new ArrayList<>();
+        definitions.add(new TransactionCodeConfigIndex.Definition(
+            new TransactionCodeConfigIndex.Key(txnCode, txnType, subTxnType), config, List.of(ConditionConfigsDTO.getDefaultInstance())));
+        definitions.add(new TransactionCodeConfigIndex.Definition(
+            new TransactionCodeConfigIndex.Key(txnCode, null, null), config, List.of()));
+        index = new TransactionCodeConfigIndex<>(() -> new ArrayList<>(definitions), condition -> amountBelow(5000));
+    }
+
+    private static Predicate<Double> amountBelow(double limit) {
+        return amount -> amount < limit;
+    }
+
+    @Test
+    public void testResolve_ExactKeyConditionsEvaluated() {
+
+        definitions.set(1, new TransactionCodeConfigIndex.Definition(
+            new TransactionCodeConfigIndex.Key(txnCode, null, null), config, List.of(ConditionConfigsDTO.getDefaultInstance())));
+        index.refresh();
+
+        //ACT & ASSERT
+        assertSame(config, index.resolve(txnCode, txnType, subTxnType, 100.0).orElseThrow());
+        assertFalse(index.resolve(txnCode, txnType, subTxnType, 9000.0).isPresent());
+    }
+
+    @Test
+    public void testResolve_FallsBackWhenExactConditionsFail() {
+
+        index.refresh();
+
+        //ACT & ASSERT
+        assertTrue(index.resolve(txnCode, txnType, subTxnType, 9000.0).isPresent());
+    }
+
+    @Test
+    public void testGetConfig_FallsBackToTxnCode() {
+
+        index.refresh();
+
+        //ACT & ASSERT
+        assertTrue(index.getConfig(txnCode, "OTHER_TXN_TYPE", subTxnType).isPresent());
+        assertTrue(index.resolve(txnCode, txnType, "OTHER_SUB_TXN_TYPE", 9000.0).isPresent());
+        assertFalse(index.getConfig("OTHER_TXN_CODE", txnType, subTxnType).isPresent());
+    }
+
+    @Test
+    public void testRefresh_DuplicateKeyKeepsPreviousSnapshot() {
+
+        index.refresh();
+        definitions.add(new TransactionCodeConfigIndex.Definition(
+            new TransactionCodeConfigIndex.Key(txnCode, txnType, subTxnType), config, List.of()));
+
+        //ACT
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> index.refresh());
+
+        //ASSERT
+        assertTrue(exception.getMessage().startsWith("Duplicate transaction code config"));
+        assertEquals(2, index.size());
+        assertTrue(index.resolve(txnCode, txnType, subTxnType, 100.0).isPresent());
+    }
+}
@@ -0,0 +1,257 @@
+package com.atlas.aggregate.cms.core.helper.limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks transaction limit usage locally with sliding-window counters per (customer profile, limit type).
+ * Each window is a ring of time buckets held in primitive arrays. Windows are guarded by a fixed set of
+ * lock stripes rather than one lock, so a reserve is an atomic check-and-add for its own key without
+ * contending with other profiles. Dirty windows are periodically handed to a checkpoint sink (Redis or
+ * MySQL) and can be restored from it, keeping that I/O off the transaction path.
+ */
+public class TransactionLimitTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionLimitTracker.class);
+
+    private final Clock clock;
+    private final Object[] stripes;
+    private final Map<String, WindowSpec> windowSpecs = new ConcurrentHashMap<>();
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+
+    public TransactionLimitTracker(Clock clock, int stripeCount) {
+        this.clock = clock;
+        this.stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public void registerLimitType(String limitType, Duration window, int bucketCount) {
+        if (bucketCount <= 0 || window.toMillis() < bucketCount) {
+            throw new IllegalArgumentException("Invalid window for limit type: " + limitType);
+        }
+        windowSpecs.put(limitType, new WindowSpec(window.toMillis() / bucketCount, bucketCount));
+    }
+
+    /**
+     * Adds the amount to the current bucket if the window total stays within the limit.
+     *
+     * @return the reservation to release if the transaction does not complete, or empty if the limit
+     *     would be exceeded
+     */
+    public Optional<Reservation> tryReserve(String customerProfileId, String limitType, long limit, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Reservation amount must be positive");
+        }
+        Key key = new Key(customerProfileId, limitType);
+        WindowSpec spec = specOf(limitType);
+        long epoch = clock.millis() / spec.bucketMillis();
+        synchronized (stripeOf(key)) {
+            Window window = windows.computeIfAbsent(key, k -> new Window(spec.bucketCount()));
+            if (window.usage(epoch) + amount > limit) {
+                return Optional.empty();
+            }
+            window.add(epoch, amount);
+            return Optional.of(new Reservation(key, epoch, amount));
+        }
+    }
+
+    /**
+     * Gives back a reservation. Amounts whose bucket already slid out of the window are ignored, and so
+     * is every release of a reservation after the first, so retry and compensation paths may repeat it.
+     */
+    public void release(Reservation reservation) {
+        if (!reservation.released.compareAndSet(false, true)) {
+            return;
+        }
+        Key key = reservation.key();
+        synchronized (stripeOf(key)) {
+            Window window = windows.get(key);
+            if (window != null) {
+                window.subtract(reservation.bucketEpoch(), reservation.amount());
+            }
+        }
+    }
+
+    public long getUsage(String customerProfileId, String limitType) {
+        Key key = new Key(customerProfileId, limitType);
+        long epoch = clock.millis() / specOf(limitType).bucketMillis();
+        synchronized (stripeOf(key)) {
+            Window window = windows.get(key);
+            return window == null ? 0 : window.usage(epoch);
+        }
+    }
+
+    /**
+     * Hands a snapshot of every window changed since the last successful checkpoint to the sink. Windows
+     * are marked clean only after the sink returns, and only if they did not change in the meantime, so a
+     * failing sink loses nothing: its exception propagates and the windows are retried on the next run.
+     * Windows that no longer hold any usage are dropped once checkpointed.
+     *
+     * @return the number of snapshots written
+     */
+    public int checkpoint(Consumer<List<Snapshot>> sink) {
+        List<Snapshot> snapshots = new ArrayList<>();
+        List<Window> snapshotWindows = new ArrayList<>();
+        for (Key key : windows.keySet()) {
+            synchronized (stripeOf(key)) {
+                Window window = windows.get(key);
+                if (window != null && window.version != window.checkpointedVersion) {
+                    snapshots.add(new Snapshot(key, window.version, window.epochs.clone(), window.amounts.clone()));
+                    snapshotWindows.add(window);
+                }
+            }
+        }
+        if (!snapshots.isEmpty()) {
+            sink.accept(snapshots);
+        }
+        for (int i = 0; i < snapshots.size(); i++) {
+            Snapshot snapshot = snapshots.get(i);
+            Key key = snapshot.key();
+            long epoch = clock.millis() / specOf(key.limitType()).bucketMillis();
+            synchronized (stripeOf(key)) {
+                Window window = windows.get(key);
+                if (window != snapshotWindows.get(i)) {
+                    continue;
+                }
+                window.checkpointedVersion = Math.max(window.checkpointedVersion, snapshot.version());
+                if (window.version == window.checkpointedVersion && window.usage(epoch) == 0) {
+                    windows.remove(key);
+                }
+            }
+        }
+        return snapshots.size();
+    }
+
+    public void restore(Snapshot snapshot) {
+        Key key = snapshot.key();
+        int bucketCount = specOf(key.limitType()).bucketCount();
+        if (snapshot.bucketEpochs().length != bucketCount) {
+            throw new IllegalArgumentException("Snapshot bucket count does not match limit type: " + key.limitType());
+        }
+        synchronized (stripeOf(key)) {
+            Window window = windows.computeIfAbsent(key, k -> new Window(bucketCount));
+            for (int i = 0; i < bucketCount; i++) {
+                if (snapshot.bucketEpochs()[i] >= window.epochs[i]) {
+                    window.epochs[i] = snapshot.bucketEpochs()[i];
+                    window.amounts[i] = snapshot.amounts()[i];
+                }
+            }
+        }
+    }
+
+    public ScheduledFuture<?> scheduleCheckpoint(ScheduledExecutorService executor, Duration interval, Consumer<List<Snapshot>> sink) {
+        return executor.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint(sink);
+            } catch (RuntimeException e) {
+                LOGGER.error("Transaction limit checkpoint failed, changed windows will be retried", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private WindowSpec specOf(String limitType) {
+        WindowSpec spec = windowSpecs.get(limitType);
+        if (spec == null) {
+            throw new IllegalArgumentException("Limit type not registered: " + limitType);
+        }
+        return spec;
+    }
+
+    private Object stripeOf(Key key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    public record Key(String customerProfileId, String limitType) {
+    }
+
+    public static final class Reservation {
+
+        private final Key key;
+        private final long bucketEpoch;
+        private final long amount;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(Key key, long bucketEpoch, long amount) {
+            this.key = key;
+            this.bucketEpoch = bucketEpoch;
+            this.amount = amount;
+        }
+
+        public Key key() {
+            return key;
+        }
+
+        public long bucketEpoch() {
+            return bucketEpoch;
+        }
+
+        public long amount() {
+            return amount;
+        }
+    }
+
+    public record Snapshot(Key key, long version, long[] bucketEpochs, long[] amounts) {
+    }
+
+    private record WindowSpec(long bucketMillis, int bucketCount) {
+    }
+
+    private static final class Window {
+
+        private final long[] epochs;
+        private final long[] amounts;
+        private long version;
+        private long checkpointedVersion;
+
+        private Window(int bucketCount) {
+            this.epochs = new long[bucketCount];
+            this.amounts = new long[bucketCount];
+            Arrays.fill(epochs, -1);
+        }
+
+        private long usage(long currentEpoch) {
+            long oldestEpoch = currentEpoch - epochs.length;
+            long usage = 0;
+            for (int i = 0; i < epochs.length; i++) {
+                if (epochs[i] > oldestEpoch) {
+                    usage += amounts[i];
+                }
+            }
+            return usage;
+        }
+
+        private void add(long epoch, long amount) {
+            int index = (int) (epoch % epochs.length);
+            if (epochs[index] != epoch) {
+                epochs[index] = epoch;
+                amounts[index] = 0;
+            }
+            amounts[index] += amount;
+            version++;
+        }
+
+        private void subtract(long epoch, long amount) {
+            int index = (int) (epoch % epochs.length);
+            if (epochs[index] == epoch) {
+                amounts[index] = Math.max(0, amounts[index] - amount);
+                version++;
+            }
+        }
+    }
+}
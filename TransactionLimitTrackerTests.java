@@ -0,0 +1,165 @@
+package com.atlas.aggregate.cms.core.helper.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class TransactionLimitTrackerTests {
+
+    private AutoCloseable closeable;
+
+    @Mock
+    private Clock clock;
+
+    private TransactionLimitTracker tracker;
+
+    @BeforeEach
+    public void setup() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(startMillis);
+        tracker = new TransactionLimitTracker(clock, 16);
+        tracker.registerLimitType(dailyLimitType, Duration.ofDays(1), 24);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    private final String customerProfileId = "TEST_CUSTOMER_PROFILE_ID";
+    private final String dailyLimitType = "DAILY";
+    private final long startMillis = Duration.ofDays(1000).toMillis();
+
+    @Test
+    public void testTryReserve_RejectsWhenLimitExceeded() {
+
+        //ACT
+        Optional<TransactionLimitTracker.Reservation> first = tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 6_000);
+        Optional<TransactionLimitTracker.Reservation> second = tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 6_000);
+
+        //ASSERT
+        assertTrue(first.isPresent());
+        assertFalse(second.isPresent());
+        assertEquals(6_000, tracker.getUsage(customerProfileId, dailyLimitType));
+        assertEquals(0, tracker.getUsage("OTHER_CUSTOMER_PROFILE_ID", dailyLimitType));
+    }
+
+    @Test
+    public void testRelease_FreesReservedAmount() {
+
+        TransactionLimitTracker.Reservation reservation = tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 6_000).orElseThrow();
+
+        //ACT
+        tracker.release(reservation);
+
+        //ASSERT
+        assertEquals(0, tracker.getUsage(customerProfileId, dailyLimitType));
+        assertTrue(tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 10_000).isPresent());
+    }
+
+    @Test
+    public void testRelease_RepeatedReleaseIsIgnored() {
+
+        tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 6_000).orElseThrow();
+        TransactionLimitTracker.Reservation reservation = tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 4_000).orElseThrow();
+
+        //ACT
+        tracker.release(reservation);
+        tracker.release(reservation);
+
+        //ASSERT
+        assertEquals(6_000, tracker.getUsage(customerProfileId, dailyLimitType));
+        assertFalse(tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 8_000).isPresent());
+    }
+
+    @Test
+    public void testTryReserve_UsageSlidesOutOfWindow() {
+
+        tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 6_000);
+        when(clock.millis()).thenReturn(startMillis + Duration.ofHours(12).toMillis());
+        tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 3_000);
+
+        //ACT
+        when(clock.millis()).thenReturn(startMillis + Duration.ofHours(24).toMillis());
+
+        //ASSERT
+        assertEquals(3_000, tracker.getUsage(customerProfileId, dailyLimitType));
+        assertTrue(tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 7_000).isPresent());
+    }
+
+    @Test
+    public void testCheckpoint_RestoresIntoNewTracker() {
+
+        tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 6_000);
+
+        //ACT
+        List<TransactionLimitTracker.Snapshot> snapshots = new ArrayList<>();
+        int written = tracker.checkpoint(snapshots::addAll);
+        TransactionLimitTracker restored = new TransactionLimitTracker(clock, 16);
+        restored.registerLimitType(dailyLimitType, Duration.ofDays(1), 24);
+        snapshots.forEach(restored::restore);
+
+        //ASSERT
+        assertEquals(1, written);
+        assertEquals(1, snapshots.size());
+        assertEquals(0, tracker.checkpoint(batch -> { }));
+        assertEquals(6_000, restored.getUsage(customerProfileId, dailyLimitType));
+    }
+
+    @Test
+    public void testTryReserve_UnregisteredLimitType() {
+
+        //ACT
+        IllegalArgumentException exception =
+            assertThrows(IllegalArgumentException.class, () -> tracker.tryReserve(customerProfileId, "MONTHLY", 10_000, 1));
+
+        //ASSERT
+        assertEquals("Limit type not registered: MONTHLY", exception.getMessage());
+    }
+
+    @Test
+    public void testCheckpoint_FailingSinkKeepsWindowsDirty() {
+
+        tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, 6_000);
+
+        //ACT
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> tracker.checkpoint(batch -> {
+            throw new IllegalStateException("TEST_SINK_FAILURE");
+        }));
+        List<TransactionLimitTracker.Snapshot> snapshots = new ArrayList<>();
+        int written = tracker.checkpoint(snapshots::addAll);
+
+        //ASSERT
+        assertEquals("TEST_SINK_FAILURE", exception.getMessage());
+        assertEquals(1, written);
+        assertEquals(6_000, Arrays.stream(snapshots.get(0).amounts()).sum());
+        assertEquals(6_000, tracker.getUsage(customerProfileId, dailyLimitType));
+    }
+
+    @Test
+    public void testTryReserve_NonPositiveAmount() {
+
+        //ACT
+        IllegalArgumentException exception =
+            assertThrows(IllegalArgumentException.class, () -> tracker.tryReserve(customerProfileId, dailyLimitType, 10_000, -6_000));
+
+        //ASSERT
+        assertEquals("Reservation amount must be positive", exception.getMessage());
+        assertEquals(0, tracker.getUsage(customerProfileId, dailyLimitType));
+    }
+}